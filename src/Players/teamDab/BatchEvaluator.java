@@ -0,0 +1,362 @@
+package Players.teamDab;
+
+import Interface.PlayerMove;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates large numbers of positions on a pool of worker threads. Each
+ * worker keeps its own teamDab board and reuses it for every position it is
+ * given. Results are handed back in the same order the positions came in,
+ * while only a bounded number of positions are in flight at once, so
+ * arbitrarily long streams can be evaluated.
+ * @author Mark Nash
+ */
+public class BatchEvaluator implements Closeable {
+
+    /**
+     * The questions that can be asked about a position.
+     */
+    public enum QueryType {
+        /** hasWonGame, answers 1 for true and 0 for false */
+        HAS_WON,
+        /** fewestSegmentsToVictory */
+        FEWEST_SEGMENTS,
+        /** isWinnable, answers 1 for true and 0 for false */
+        IS_WINNABLE
+    }
+
+    /**
+     * One position to evaluate: the game so far, the player the board plays
+     * as and the question to answer.
+     */
+    public static class Position {
+
+        /** The board size and the moves made so far */
+        private GameRecord game;
+
+        /** The player id given to initPlayer */
+        private int boardPlayer;
+
+        /** The question to answer */
+        private QueryType type;
+
+        /** The player the question is about */
+        private int player;
+
+        /** Whose turn it is, only used by IS_WINNABLE */
+        private int currTurn;
+
+        /** The total moves left, only used by IS_WINNABLE */
+        private int movesLeft;
+
+        /** The expected answer, -1 if unknown */
+        private int expected;
+
+        /**
+         * Constructor for Position class.
+         *
+         * @param game the board size and the moves made so far
+         * @param boardPlayer the player id given to initPlayer
+         * @param type the question to answer
+         * @param player the player the question is about
+         * @param currTurn whose turn it is, only used by IS_WINNABLE
+         * @param movesLeft the total moves left, only used by IS_WINNABLE
+         * @param expected the expected answer, -1 if unknown
+         */
+        public Position(GameRecord game, int boardPlayer, QueryType type,
+                        int player, int currTurn, int movesLeft,
+                        int expected) {
+            this.game = game;
+            this.boardPlayer = boardPlayer;
+            this.type = type;
+            this.player = player;
+            this.currTurn = currTurn;
+            this.movesLeft = movesLeft;
+            this.expected = expected;
+        }
+
+        /**
+         * @return the board size and the moves made so far
+         */
+        public GameRecord getGame() {
+            return game;
+        }
+
+        /**
+         * @return the question to answer
+         */
+        public QueryType getType() {
+            return type;
+        }
+
+        /**
+         * @return the player the question is about
+         */
+        public int getPlayer() {
+            return player;
+        }
+
+        /**
+         * @return the expected answer, -1 if unknown
+         */
+        public int getExpected() {
+            return expected;
+        }
+
+        /**
+         * Sets up the board for this position and answers the question.
+         *
+         * @param board the board to use
+         * @return the answer, with 1 for true and 0 for false
+         */
+        private int evaluate(teamDab board) {
+            board.initPlayer(game.getDim(), boardPlayer);
+            for (PlayerMove m : game.getMoves()) {
+                board.lastMove(m);
+            }
+            switch (type) {
+                case HAS_WON:
+                    return board.hasWonGame(player) ? 1 : 0;
+                case FEWEST_SEGMENTS:
+                    return board.fewestSegmentsToVictory(player);
+                default:
+                    return board.isWinnable(player, currTurn, movesLeft)
+                            ? 1 : 0;
+            }
+        }
+
+        /**
+         * Reads the positions a Part 1, 2 or 3 config file tests. Part 1 and
+         * Part 2 files test both players, Part 3 files test the ID player
+         * with the turn following the last PREMOVE.
+         *
+         * @param in the config file to read
+         * @return the positions with their expected answers
+         * @throws IOException if the file cannot be read or is malformed
+         */
+        public static List<Position> fromConfig(BufferedReader in)
+                throws IOException {
+            StringBuilder text = new StringBuilder();
+            int part = 0;
+            int id = 1;
+            int moves = 0;
+            String[] result = new String[0];
+            String line;
+            while ((line = in.readLine()) != null) {
+                text.append(line).append('\n');
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 2) {
+                    continue;
+                }
+                try {
+                    if (parts[0].equals("PART")) {
+                        part = Integer.parseInt(parts[1]);
+                    }
+                    else if (parts[0].equals("ID")) {
+                        id = Integer.parseInt(parts[1]);
+                    }
+                    else if (parts[0].equals("MOVES")) {
+                        moves = Integer.parseInt(parts[1]);
+                    }
+                    else if (parts[0].equals("RESULT")) {
+                        result = parts[1].split(",");
+                    }
+                }
+                catch (NumberFormatException e) {
+                    throw new IOException("Malformed config line: " + line,
+                            e);
+                }
+            }
+            GameRecord game = GameRecord.readPremoves(new BufferedReader(
+                    new StringReader(text.toString())));
+            List<Position> positions = new ArrayList<>();
+            if (part == 1 || part == 2) {
+                for (int p = 1; p <= 2; p++) {
+                    int expected = -1;
+                    if (result.length == 2) {
+                        expected = part == 1 ? (Boolean.parseBoolean(
+                                result[p - 1]) ? 1 : 0) :
+                                Integer.parseInt(result[p - 1]);
+                    }
+                    positions.add(new Position(game, 1, part == 1 ?
+                            QueryType.HAS_WON : QueryType.FEWEST_SEGMENTS,
+                            p, 0, 0, expected));
+                }
+            }
+            else if (part == 3) {
+                List<PlayerMove> played = game.getMoves();
+                int turn = played.isEmpty() ? 1 : (played.get(played.size()
+                        - 1).getPlayerId() == 1 ? 2 : 1);
+                int expected = result.length == 1 ?
+                        (Boolean.parseBoolean(result[0]) ? 1 : 0) : -1;
+                positions.add(new Position(game, id, QueryType.IS_WINNABLE,
+                        id, turn, moves, expected));
+            }
+            return positions;
+        }
+    }
+
+    /**
+     * The answer to one position.
+     */
+    public static class Result {
+
+        /** The position that was evaluated */
+        private Position position;
+
+        /** The answer, with 1 for true and 0 for false */
+        private int value;
+
+        /**
+         * Constructor for Result class.
+         *
+         * @param position the position that was evaluated
+         * @param value the answer
+         */
+        private Result(Position position, int value) {
+            this.position = position;
+            this.value = value;
+        }
+
+        /**
+         * @return the position that was evaluated
+         */
+        public Position getPosition() {
+            return position;
+        }
+
+        /**
+         * @return the answer, with 1 for true and 0 for false
+         */
+        public int getValue() {
+            return value;
+        }
+
+        /**
+         * @return false only if an expected answer was given and differs
+         */
+        public boolean isCorrect() {
+            return position.expected == -1 || position.expected == value;
+        }
+    }
+
+    /** The worker threads */
+    private ExecutorService pool;
+
+    /** The board each worker thread reuses */
+    private ThreadLocal<teamDab> boards;
+
+    /** The most positions allowed in flight at once */
+    private int window;
+
+    /**
+     * Constructor for BatchEvaluator class.
+     *
+     * @param threads the number of worker threads
+     */
+    public BatchEvaluator(int threads) {
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.boards = ThreadLocal.withInitial(() -> new teamDab(false));
+        this.window = threads * 4;
+    }
+
+    /**
+     * Evaluates every position and hands each result to the consumer in the
+     * order the positions came in. Returns once every result has been
+     * handed over.
+     *
+     * @param positions the positions to evaluate
+     * @param results called once per position, on the calling thread
+     * @throws ExecutionException if evaluating a position failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void evaluate(Iterator<Position> positions,
+                         Consumer<Result> results)
+            throws ExecutionException, InterruptedException {
+        Queue<Future<Result>> inFlight = new ArrayDeque<>(window);
+        try {
+            while (positions.hasNext() || !inFlight.isEmpty()) {
+                while (positions.hasNext() && inFlight.size() < window) {
+                    Position p = positions.next();
+                    inFlight.add(pool.submit(() ->
+                            new Result(p, p.evaluate(boards.get()))));
+                }
+                results.accept(inFlight.remove().get());
+            }
+        }
+        finally {
+            for (Future<Result> f : inFlight) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Checks config files against their RESULT lines and prints any that
+     * do not match, along with how fast the positions were evaluated.
+     *
+     * @param args the config files to check
+     * @throws Exception if a file cannot be read or evaluating fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: BatchEvaluator <config>...");
+            return;
+        }
+        List<Position> positions = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        for (String file : args) {
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(file),
+                    StandardCharsets.UTF_8)) {
+                for (Position p : Position.fromConfig(in)) {
+                    positions.add(p);
+                    files.add(file);
+                }
+            }
+        }
+        int[] counts = new int[2];
+        long begin = System.nanoTime();
+        try (BatchEvaluator evaluator = new BatchEvaluator(
+                Runtime.getRuntime().availableProcessors())) {
+            evaluator.evaluate(positions.iterator(), r -> {
+                if (!r.isCorrect()) {
+                    System.out.println(files.get(counts[0]) + ": " +
+                            r.getPosition().getType() + " player " +
+                            r.getPosition().getPlayer() + " got " +
+                            r.getValue() + " expected " +
+                            r.getPosition().getExpected());
+                    counts[1]++;
+                }
+                counts[0]++;
+            });
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("%d positions, %d incorrect, %.3f s%n", counts[0],
+                counts[1], seconds);
+    }
+}
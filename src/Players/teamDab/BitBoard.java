@@ -0,0 +1,261 @@
+package Players.teamDab;
+
+import java.util.Arrays;
+
+/**
+ * The game board as one long bitmask per row, bit c of a row standing for
+ * column c. Whole regions are flood filled with shifts, ANDs and ORs
+ * instead of visiting one space at a time, which answers hasWonGame and
+ * fewestSegmentsToVictory in a few dozen word operations per step. Boards
+ * up to 64 columns wide fit.
+ * @author Mark Nash
+ */
+public class BitBoard {
+
+    /** The largest board size a row of which fits in a long */
+    public static final int MAX_DIM = (Long.SIZE - 1) / 2;
+
+    /** Returned by fewestSegments when the player is cut off */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** The maximum cells on the game board horizontally or vertically */
+    private int max;
+
+    /** The spaces each player occupies, fixed ones included, by player id */
+    private long[][] occupied;
+
+    /** The empty playable spaces */
+    private long[] empty;
+
+    /** The spaces each player's path starts from, by player id */
+    private long[][] starts;
+
+    /** The spaces each player's path finishes at, by player id */
+    private long[][] finishes;
+
+    /**
+     * Constructor for BitBoard class. Starts with no moves made.
+     *
+     * @param dim the dimension of the game board
+     */
+    public BitBoard(int dim) {
+        this.max = 2 * dim + 1;
+        if (dim > MAX_DIM) {
+            throw new IllegalArgumentException("DIM " + dim +
+                    " is too large for a BitBoard");
+        }
+        this.occupied = new long[3][max];
+        this.empty = new long[max];
+        this.starts = new long[3][max];
+        this.finishes = new long[3][max];
+        for (int i = 1; i < max; i += 2) {
+            starts[1][i] = 1L;
+            finishes[1][i] = 1L << (max - 1);
+        }
+        for (int j = 1; j < max; j += 2) {
+            starts[2][0] |= 1L << j;
+            finishes[2][max - 1] |= 1L << j;
+        }
+        reset();
+    }
+
+    /**
+     * Clears every move off the board.
+     */
+    public void reset() {
+        Arrays.fill(occupied[1], 0);
+        Arrays.fill(occupied[2], 0);
+        Arrays.fill(empty, 0);
+        for (int i = 0; i < max; i++) {
+            for (int j = 0; j < max; j++) {
+                if (i % 2 != 0 && j % 2 == 0) {
+                    occupied[1][i] |= 1L << j;
+                }
+                else if (i % 2 == 0 && j % 2 != 0) {
+                    occupied[2][i] |= 1L << j;
+                }
+                else if (i > 0 && j > 0 && i < max - 1 && j < max - 1) {
+                    empty[i] |= 1L << j;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets who occupies a playable space.
+     *
+     * @param row the row of the space
+     * @param column the column of the space
+     * @param player the player occupying it, 0 to empty it
+     */
+    public void set(int row, int column, int player) {
+        long bit = 1L << column;
+        occupied[1][row] &= ~bit;
+        occupied[2][row] &= ~bit;
+        empty[row] &= ~bit;
+        if (player == 0) {
+            empty[row] |= bit;
+        }
+        else {
+            occupied[player][row] |= bit;
+        }
+    }
+
+    /**
+     * @param player the player of interest
+     * @return if the player's spaces connect their two edges
+     */
+    public boolean hasWon(int player) {
+        long[] reach = start(player);
+        return touches(reach, finishes[player]);
+    }
+
+    /**
+     * Counts the fewest empty spaces the player has to take to connect their
+     * edges. Each step grows the region the player can reach by every empty
+     * space next to it, then floods it through the player's own spaces.
+     *
+     * @param player the player of interest
+     * @return the fewest segments needed, or UNREACHABLE if the player is
+     * cut off
+     */
+    public int fewestSegments(int player) {
+        long[] own = occupied[player];
+        long[] reach = start(player);
+        for (int segments = 0; ; segments++) {
+            if (touches(reach, finishes[player])) {
+                return segments;
+            }
+            long[] step = new long[max];
+            boolean grew = false;
+            for (int r = 0; r < max; r++) {
+                step[r] = neighbors(reach, r) & empty[r] & ~reach[r];
+                grew |= step[r] != 0;
+            }
+            if (!grew) {
+                return UNREACHABLE;
+            }
+            for (int r = 0; r < max; r++) {
+                reach[r] |= step[r];
+            }
+            flood(reach, own);
+        }
+    }
+
+    /**
+     * @param player the player of interest
+     * @return the player's spaces connected to their start edge
+     */
+    private long[] start(int player) {
+        long[] reach = new long[max];
+        for (int r = 0; r < max; r++) {
+            reach[r] = starts[player][r] & occupied[player][r];
+        }
+        flood(reach, occupied[player]);
+        return reach;
+    }
+
+    /**
+     * Grows a region through every connected space of the mask, sweeping
+     * down and then up the rows until nothing changes.
+     *
+     * @param reach the region to grow, changed in place
+     * @param mask the spaces the region may grow into
+     */
+    private void flood(long[] reach, long[] mask) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int r = 0; r < max; r++) {
+                changed |= floodRow(reach, mask, r);
+            }
+            for (int r = max - 2; r >= 0; r--) {
+                changed |= floodRow(reach, mask, r);
+            }
+        }
+    }
+
+    /**
+     * Grows one row of a region from the rows above and below it, then
+     * along the row.
+     *
+     * @param reach the region to grow, changed in place
+     * @param mask the spaces the region may grow into
+     * @param r the row to grow
+     * @return if the row changed
+     */
+    private boolean floodRow(long[] reach, long[] mask, int r) {
+        long vertical = (r > 0 ? reach[r - 1] : 0) |
+                (r < max - 1 ? reach[r + 1] : 0);
+        long row = fillRow(reach[r] | (vertical & mask[r]), mask[r]);
+        if (row == reach[r]) {
+            return false;
+        }
+        reach[r] = row;
+        return true;
+    }
+
+    /**
+     * Spreads bits along a row through every run of the mask they touch,
+     * with a Kogge-Stone fill in each direction.
+     *
+     * @param gen the bits to spread from
+     * @param mask the bits they may spread through
+     * @return the spread bits
+     */
+    private static long fillRow(long gen, long mask) {
+        long left = gen;
+        long pro = mask;
+        left |= pro & (left << 1);
+        pro &= pro << 1;
+        left |= pro & (left << 2);
+        pro &= pro << 2;
+        left |= pro & (left << 4);
+        pro &= pro << 4;
+        left |= pro & (left << 8);
+        pro &= pro << 8;
+        left |= pro & (left << 16);
+        pro &= pro << 16;
+        left |= pro & (left << 32);
+
+        long right = gen;
+        pro = mask;
+        right |= pro & (right >>> 1);
+        pro &= pro >>> 1;
+        right |= pro & (right >>> 2);
+        pro &= pro >>> 2;
+        right |= pro & (right >>> 4);
+        pro &= pro >>> 4;
+        right |= pro & (right >>> 8);
+        pro &= pro >>> 8;
+        right |= pro & (right >>> 16);
+        pro &= pro >>> 16;
+        right |= pro & (right >>> 32);
+        return left | right;
+    }
+
+    /**
+     * @param reach a region
+     * @param r the row of interest
+     * @return the spaces of the row next to the region
+     */
+    private long neighbors(long[] reach, int r) {
+        long row = reach[r];
+        return (row << 1) | (row >>> 1) | (r > 0 ? reach[r - 1] : 0) |
+                (r < max - 1 ? reach[r + 1] : 0);
+    }
+
+    /**
+     * @param reach a region
+     * @param edge the spaces of an edge
+     * @return if the region includes any space of the edge
+     */
+    private boolean touches(long[] reach, long[] edge) {
+        for (int r = 0; r < max; r++) {
+            if ((reach[r] & edge[r]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package Players.teamDab;
+
+import Interface.Coordinate;
+
+import java.util.Arrays;
+
+/**
+ * The spaces of the game board, one byte each, holding the id of the player
+ * occupying the space or 0 for no one. Space (row, column) is stored at
+ * row * max + column, the same numbering DistanceField uses, so neighbors
+ * are found by arithmetic instead of being stored. A board of DIM 500 takes
+ * about a megabyte.
+ * @author Mark Nash
+ */
+public class Board {
+
+    /** The dimensions of the game board */
+    private int dim;
+
+    /** The maximum cells on the game board horizontally or vertically */
+    private int max;
+
+    /** The player occupying each space, 0 for no one */
+    private byte[] cells;
+
+    /**
+     * Constructor for Board class. Starts with no moves made.
+     *
+     * @param dim the dimension of the game board
+     */
+    public Board(int dim) {
+        this.dim = dim;
+        this.max = 2 * dim + 1;
+        this.cells = new byte[max * max];
+        reset();
+    }
+
+    /**
+     * Clears every move off the board, leaving only the spaces each player
+     * starts with.
+     */
+    public void reset() {
+        Arrays.fill(cells, (byte) 0);
+        for (int i = 0; i < max; i++) {
+            for (int j = 0; j < max; j++) {
+                if (i % 2 != 0 && j % 2 == 0) {
+                    cells[i * max + j] = 1;
+                }
+                else if (i % 2 == 0 && j % 2 != 0) {
+                    cells[i * max + j] = 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the dimension of the game board
+     */
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * @return the maximum cells on the game board horizontally or vertically
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the player occupying the space, 0 for no one
+     */
+    public int getOccupant(int row, int column) {
+        return cells[row * max + column];
+    }
+
+    /**
+     * @param c the coordinate of the space
+     * @return the player occupying the space, 0 for no one
+     */
+    public int getOccupant(Coordinate c) {
+        return cells[c.getRow() * max + c.getCol()];
+    }
+
+    /**
+     * @param index the space as row * max + column
+     * @return the player occupying the space, 0 for no one
+     */
+    public int getOccupant(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Sets who occupies a space.
+     *
+     * @param row the row of the space
+     * @param column the column of the space
+     * @param player the player occupying it, 0 to empty it
+     */
+    public void set(int row, int column, int player) {
+        cells[row * max + column] = (byte) player;
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return if the space is off the border, where moves can be made
+     */
+    public boolean isInside(int row, int column) {
+        return row > 0 && column > 0 && row < max - 1 && column < max - 1;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Board) {
+            Board b = (Board) obj;
+            return dim == b.dim && Arrays.equals(cells, b.cells);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+}
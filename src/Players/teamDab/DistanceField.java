@@ -0,0 +1,437 @@
+package Players.teamDab;
+
+import java.util.Arrays;
+
+/**
+ * Stores, for one player, the fewest segments needed to reach every space on
+ * the game board from each of that player's two edges. A space occupied by
+ * the player costs nothing to pass through, an empty playable space costs one
+ * segment, and every other space is blocked. With both distances known, the
+ * length of the best winning path through any space can be looked up
+ * directly instead of rerunning Dijkstra's.
+ * <p>
+ * Every table is a flat array over the spaces numbered row * max + column,
+ * and each search runs in time linear in the number of spaces.
+ * @author Mark Nash
+ */
+public class DistanceField {
+
+    /** Distance used for spaces that cannot be reached from an edge */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** The game board this field is computed over */
+    private Board board;
+
+    /** The maximum cells on the game board horizontally or vertically */
+    private int max;
+
+    /** The player this field is computed for */
+    private int playerId;
+
+    /** The spaces touching the edge the player starts from */
+    private int[] start;
+
+    /** The spaces touching the edge the player finishes at */
+    private int[] finish;
+
+    /** Fewest segments to reach each space from the start edge */
+    private int[] fromStart;
+
+    /** Fewest segments to reach each space from the finish edge */
+    private int[] fromFinish;
+
+    /**
+     * The space each space is reached from on a shortest path from the start
+     * edge, stored as row * max + column. -1 if reached from the edge itself.
+     */
+    private int[] startPredecessors;
+
+    /**
+     * The number of empty spaces on some shortest path at each distance from
+     * the start edge. A count of one means every shortest path uses that space.
+     */
+    private int[] layerWidths;
+
+    /** Fewest segments needed to connect both edges */
+    private int shortest;
+
+    /** The board version the distances were computed for, -1 if never */
+    private int version;
+
+    /** Whether the layer widths still match the distances */
+    private boolean layersCurrent;
+
+    /** The spaces waiting in the 0-1 breadth-first search, a ring buffer */
+    private int[] deque;
+
+    /** Where the first waiting space is in the deque */
+    private int head;
+
+    /** How many spaces are waiting in the deque */
+    private int size;
+
+    /**
+     * Constructor for the DistanceField class. The distances are not computed
+     * until the first call to refresh.
+     *
+     * @param board the game board
+     * @param playerId the player to compute distances for
+     */
+    public DistanceField(Board board, int playerId) {
+        this.board = board;
+        this.max = board.getMax();
+        this.playerId = playerId;
+        this.start = new int[board.getDim()];
+        this.finish = new int[board.getDim()];
+        for (int k = 0; k < board.getDim(); k++) {
+            int i = 2 * k + 1;
+            this.start[k] = playerId == 1 ? i * max : i;
+            this.finish[k] = playerId == 1 ? i * max + max - 1 :
+                    (max - 1) * max + i;
+        }
+        this.fromStart = new int[max * max];
+        this.fromFinish = new int[max * max];
+        this.startPredecessors = new int[max * max];
+        this.deque = new int[64];
+        this.layerWidths = new int[0];
+        this.shortest = UNREACHABLE;
+        this.version = -1;
+        this.layersCurrent = false;
+    }
+
+    /**
+     * Recomputes both distance tables if they were computed for a different
+     * board version than the one given.
+     *
+     * @param boardVersion the current version of the game board
+     */
+    public void refresh(int boardVersion) {
+        if (version == boardVersion) {
+            return;
+        }
+        fill(fromStart, startPredecessors, start);
+        fill(fromFinish, null, finish);
+        shortest = bestAtEdge(fromStart, finish);
+        version = boardVersion;
+        layersCurrent = false;
+    }
+
+    /**
+     * Called after a space has been taken. If this player took it and the
+     * distances are current, only the spaces that got closer are relaxed.
+     * Otherwise the distances are left stale until the next refresh.
+     *
+     * @param row the row of the space that was taken
+     * @param column the column of the space that was taken
+     * @param player the player that took the space
+     * @param oldVersion the board version before the move
+     * @param newVersion the board version after the move
+     */
+    public void spaceTaken(int row, int column, int player, int oldVersion,
+                           int newVersion) {
+        if (version != oldVersion || player != playerId) {
+            return;
+        }
+        relaxFrom(fromStart, startPredecessors, row, column);
+        relaxFrom(fromFinish, null, row, column);
+        shortest = bestAtEdge(fromStart, finish);
+        version = newVersion;
+        layersCurrent = false;
+    }
+
+    /**
+     * @return the board version the distances are current for
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the player this field is computed for
+     */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * @return the maximum cells on the game board horizontally or vertically
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @return the fewest segments needed to connect both edges, or
+     * UNREACHABLE if the player is cut off
+     */
+    public int getShortest() {
+        return shortest;
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the fewest segments from the start edge up to and including
+     * the space
+     */
+    public int getFromStart(int row, int column) {
+        return fromStart[row * max + column];
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the fewest segments from the finish edge up to and including
+     * the space
+     */
+    public int getFromFinish(int row, int column) {
+        return fromFinish[row * max + column];
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the space the given space is reached from on a shortest path
+     * from the start edge as row * max + column, or -1 if it touches the
+     * start edge
+     */
+    public int getStartPredecessor(int row, int column) {
+        return startPredecessors[row * max + column];
+    }
+
+    /**
+     * Finds the space touching the finish edge that ends a shortest path.
+     *
+     * @return the space as row * max + column, or -1 if the player is cut
+     * off
+     */
+    public int getPathEnd() {
+        if (shortest == UNREACHABLE) {
+            return -1;
+        }
+        for (int n : finish) {
+            if (fromStart[n] == shortest) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The number of segments a winning path through the given space needs
+     * beyond the shortest one. Zero means the space is on a shortest path.
+     *
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the extra segments needed, or UNREACHABLE if no winning path
+     * can go through the space
+     */
+    public int getSlack(int row, int column) {
+        int a = fromStart[row * max + column];
+        int b = fromFinish[row * max + column];
+        if (a == UNREACHABLE || b == UNREACHABLE || shortest == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        return a + b - cost(row, column) - shortest;
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return if the space lies on at least one shortest winning path
+     */
+    public boolean isOnShortestPath(int row, int column) {
+        return getSlack(row, column) == 0;
+    }
+
+    /**
+     * How many empty spaces share this space's step along the shortest
+     * paths. A width of one means the space is on every shortest path, so
+     * taking it forces the player onto a longer path.
+     *
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the layer width, or 0 if the space is not an empty space on a
+     * shortest path
+     */
+    public int getLayerWidth(int row, int column) {
+        if (!isOnShortestPath(row, column) ||
+                board.getOccupant(row, column) != 0) {
+            return 0;
+        }
+        if (!layersCurrent) {
+            countLayers();
+        }
+        return layerWidths[fromStart[row * max + column]];
+    }
+
+    /**
+     * Counts how many empty shortest path spaces sit at each distance from
+     * the start edge.
+     */
+    private void countLayers() {
+        layerWidths = new int[shortest == UNREACHABLE ? 1 : shortest + 1];
+        for (int i = 0; i < max; i++) {
+            for (int j = 0; j < max; j++) {
+                if (board.getOccupant(i, j) == 0 && isOnShortestPath(i, j)) {
+                    layerWidths[fromStart[i * max + j]]++;
+                }
+            }
+        }
+        layersCurrent = true;
+    }
+
+    /**
+     * Fills a distance table with a 0-1 breadth-first search that starts at
+     * every space touching the given edge.
+     *
+     * @param dist the table to fill
+     * @param pred the predecessor table to fill alongside it, or null
+     * @param edge the spaces touching the edge to measure from
+     */
+    private void fill(int[] dist, int[] pred, int[] edge) {
+        Arrays.fill(dist, UNREACHABLE);
+        for (int n : edge) {
+            int c = cost(n / max, n % max);
+            if (c < 0 || c >= dist[n]) {
+                continue;
+            }
+            dist[n] = c;
+            if (pred != null) {
+                pred[n] = -1;
+            }
+            push(n, c);
+        }
+        spread(dist, pred);
+    }
+
+    /**
+     * Lowers the distances around a space that just became free to pass
+     * through.
+     *
+     * @param dist the table to relax
+     * @param pred the predecessor table to relax alongside it, or null
+     * @param row the row of the space
+     * @param column the column of the space
+     */
+    private void relaxFrom(int[] dist, int[] pred, int row, int column) {
+        int n = row * max + column;
+        if (dist[n] == UNREACHABLE || dist[n] == 0) {
+            return;
+        }
+        dist[n]--;
+        push(n, 0);
+        spread(dist, pred);
+    }
+
+    /**
+     * Runs the 0-1 breadth-first search from the spaces already in the
+     * deque.
+     *
+     * @param dist the table being filled
+     * @param pred the predecessor table being filled, or null
+     */
+    private void spread(int[] dist, int[] pred) {
+        while (size > 0) {
+            int current = deque[head];
+            head = (head + 1) & (deque.length - 1);
+            size--;
+            int row = current / max;
+            int column = current - row * max;
+            if (row > 0) {
+                relax(dist, pred, current, row - 1, column);
+            }
+            if (column < max - 1) {
+                relax(dist, pred, current, row, column + 1);
+            }
+            if (row < max - 1) {
+                relax(dist, pred, current, row + 1, column);
+            }
+            if (column > 0) {
+                relax(dist, pred, current, row, column - 1);
+            }
+        }
+    }
+
+    /**
+     * Lowers the distance of a neighbor if it is cheaper to reach through
+     * the current space, and queues it if so.
+     *
+     * @param dist the table being filled
+     * @param pred the predecessor table being filled, or null
+     * @param current the space being expanded
+     * @param row the row of the neighbor
+     * @param column the column of the neighbor
+     */
+    private void relax(int[] dist, int[] pred, int current, int row,
+                       int column) {
+        int c = cost(row, column);
+        int nbr = row * max + column;
+        if (c < 0 || dist[current] + c >= dist[nbr]) {
+            return;
+        }
+        dist[nbr] = dist[current] + c;
+        if (pred != null) {
+            pred[nbr] = current;
+        }
+        push(nbr, c);
+    }
+
+    /**
+     * Queues a space, at the front if it cost nothing to reach and at the
+     * back otherwise. The deque doubles when full.
+     *
+     * @param n the space as row * max + column
+     * @param c the cost of reaching it
+     */
+    private void push(int n, int c) {
+        if (size == deque.length) {
+            int[] bigger = new int[deque.length * 2];
+            for (int k = 0; k < size; k++) {
+                bigger[k] = deque[(head + k) & (deque.length - 1)];
+            }
+            deque = bigger;
+            head = 0;
+        }
+        if (c == 0) {
+            head = (head - 1) & (deque.length - 1);
+            deque[head] = n;
+        }
+        else {
+            deque[(head + size) & (deque.length - 1)] = n;
+        }
+        size++;
+    }
+
+    /**
+     * The best distance among the spaces touching the given edge.
+     *
+     * @param dist the table to read
+     * @param edge the spaces touching the edge
+     * @return the fewest segments to reach the edge
+     */
+    private int bestAtEdge(int[] dist, int[] edge) {
+        int best = UNREACHABLE;
+        for (int n : edge) {
+            best = Math.min(best, dist[n]);
+        }
+        return best;
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the segments it takes this player to pass through the space,
+     * or -1 if the player cannot pass through it
+     */
+    private int cost(int row, int column) {
+        int occupant = board.getOccupant(row, column);
+        if (occupant == playerId) {
+            return 0;
+        }
+        if (occupant == 0 && board.isInside(row, column)) {
+            return 1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,186 @@
+package Players.teamDab;
+
+import Interface.Coordinate;
+import Interface.PlayerMove;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One recorded game: the board size, the names of both players and every
+ * move in the order it was made. Can be read from and written to the
+ * PREMOVE syntax of the config files, and to the binary record format used
+ * by GameRecordWriter and GameRecordReader.
+ * @author Mark Nash
+ */
+public class GameRecord {
+
+    /** The dimension of the game board */
+    private int dim;
+
+    /** The names of the players, index 0 = player 1, 1 = player 2 */
+    private String[] players;
+
+    /** Every move of the game in order */
+    private List<PlayerMove> moves;
+
+    /**
+     * Constructor for GameRecord class. Starts with no moves.
+     *
+     * @param dim the dimension of the game board
+     * @param player1 the name of player 1, empty if unknown
+     * @param player2 the name of player 2, empty if unknown
+     */
+    public GameRecord(int dim, String player1, String player2) {
+        this.dim = dim;
+        this.players = new String[] {player1, player2};
+        this.moves = new ArrayList<>();
+    }
+
+    /**
+     * @return the dimension of the game board
+     */
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * @param playerId the player of interest
+     * @return the name of the player, empty if unknown
+     */
+    public String getPlayer(int playerId) {
+        return players[playerId - 1];
+    }
+
+    /**
+     * @return the moves of the game in order
+     */
+    public List<PlayerMove> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Adds a move to the end of the game.
+     * @param m the move to add
+     */
+    public void addMove(PlayerMove m) {
+        moves.add(m);
+    }
+
+    /**
+     * Reads a game from a config file. DIM, PLAYERS and PREMOVE lines are
+     * used, every other line is ignored. DIM defaults to 6 like the game
+     * does.
+     *
+     * @param in the config file to read
+     * @return the game described by the config file
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static GameRecord readPremoves(BufferedReader in)
+            throws IOException {
+        int dim = 6;
+        String player1 = "";
+        String player2 = "";
+        List<PlayerMove> moves = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            String[] parts = line.split("\\s+");
+            if (parts.length != 2) {
+                continue;
+            }
+            try {
+                if (parts[0].equals("DIM")) {
+                    dim = Integer.parseInt(parts[1]);
+                }
+                else if (parts[0].equals("PLAYERS")) {
+                    String[] names = parts[1].split(",");
+                    player1 = names[0];
+                    player2 = names.length > 1 ? names[1] : "";
+                }
+                else if (parts[0].equals("PREMOVE")) {
+                    String[] values = parts[1].split(",");
+                    moves.add(new PlayerMove(new Coordinate(
+                            Integer.parseInt(values[0]),
+                            Integer.parseInt(values[1])),
+                            Integer.parseInt(values[2])));
+                }
+            }
+            catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Malformed config line: " + line, e);
+            }
+        }
+        GameRecord record = new GameRecord(dim, player1, player2);
+        record.moves = moves;
+        return record;
+    }
+
+    /**
+     * Writes the game as DIM, PLAYERS and PREMOVE lines that can be pasted
+     * into a config file to replay it.
+     *
+     * @param out where to write the lines
+     * @throws IOException if the lines cannot be written
+     */
+    public void writePremoves(Writer out) throws IOException {
+        out.write("DIM " + dim + "\n");
+        if (!players[0].isEmpty() && !players[1].isEmpty()) {
+            out.write("PLAYERS " + players[0] + "," + players[1] + "\n");
+        }
+        for (PlayerMove m : moves) {
+            out.write("PREMOVE " + m.getCoordinate().getRow() + "," +
+                    m.getCoordinate().getCol() + "," + m.getPlayerId() + "\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * Converts between config files and binary game records.
+     * <p>
+     * {@code toBinary <record> <config>...} appends every config file as a
+     * game to the record file.
+     * {@code toConfig <record> <prefix>} writes every game in the record
+     * file to its own config file named prefix followed by the game number.
+     *
+     * @param args the conversion and its files
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("toBinary")) {
+            try (GameRecordWriter writer =
+                         new GameRecordWriter(Paths.get(args[1]))) {
+                for (int i = 2; i < args.length; i++) {
+                    try (BufferedReader in = Files.newBufferedReader(
+                            Paths.get(args[i]), StandardCharsets.UTF_8)) {
+                        writer.write(readPremoves(in));
+                    }
+                }
+            }
+        }
+        else if (args.length == 3 && args[0].equals("toConfig")) {
+            try (GameRecordReader reader =
+                         new GameRecordReader(Paths.get(args[1]))) {
+                int game = 0;
+                GameRecord record;
+                while ((record = reader.readGame()) != null) {
+                    Path out = Paths.get(args[2] + game++ + ".txt");
+                    try (Writer w = Files.newBufferedWriter(out,
+                            StandardCharsets.UTF_8)) {
+                        record.writePremoves(w);
+                    }
+                }
+            }
+        }
+        else {
+            System.err.println("Usage: GameRecord toBinary <record> " +
+                    "<config>... | toConfig <record> <prefix>");
+        }
+    }
+}
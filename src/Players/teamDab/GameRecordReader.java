@@ -0,0 +1,295 @@
+package Players.teamDab;
+
+import Interface.Coordinate;
+import Interface.PlayerMove;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the binary record format written by GameRecordWriter. The file is
+ * memory-mapped a window at a time, so records far larger than the heap can
+ * be replayed without copying them.
+ * @author Mark Nash
+ */
+public class GameRecordReader implements Closeable {
+
+    /** The largest part of the file mapped at once */
+    private static final long WINDOW = 1L << 30;
+
+    /**
+     * Called for every position while replaying a record.
+     */
+    public interface PositionVisitor {
+
+        /**
+         * @param board the board with the move already applied
+         * @param move the move that was just made
+         * @param moveNumber how many moves have been made so far in the game
+         */
+        void visit(teamDab board, PlayerMove move, int moveNumber);
+    }
+
+    /** The record file */
+    private FileChannel channel;
+
+    /** The size of the record file in bytes */
+    private long size;
+
+    /** The file offset the current window starts at */
+    private long windowStart;
+
+    /** The currently mapped part of the file */
+    private MappedByteBuffer window;
+
+    /** The dimension of the current game */
+    private int dim;
+
+    /** The maximum cells horizontally or vertically in the current game */
+    private int max;
+
+    /** The player names of the current game */
+    private String[] players;
+
+    /** Whether the moves of the current game have not all been read */
+    private boolean inGame;
+
+    /**
+     * Constructor for GameRecordReader class. Opens and maps the record file
+     * and checks its leading bytes.
+     *
+     * @param file the record file
+     * @throws IOException if the file cannot be read or is not a record
+     */
+    public GameRecordReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.players = new String[] {"", ""};
+        this.inGame = false;
+        map(0);
+        byte[] magic = new byte[GameRecordWriter.MAGIC.length];
+        for (int i = 0; i < magic.length; i++) {
+            if (!hasMore()) {
+                throw new IOException("Not a game record: " + file);
+            }
+            magic[i] = readByte();
+        }
+        if (!Arrays.equals(magic, GameRecordWriter.MAGIC)) {
+            throw new IOException("Not a game record: " + file);
+        }
+    }
+
+    /**
+     * Moves to the header of the next game, skipping any unread moves of the
+     * current one.
+     *
+     * @return false if there are no more games
+     * @throws IOException if the record is cut off inside a header
+     */
+    public boolean nextGame() throws IOException {
+        while (inGame) {
+            nextMove();
+        }
+        if (!hasMore()) {
+            return false;
+        }
+        dim = (int) readVarint();
+        max = 2 * dim + 1;
+        players[0] = readName();
+        players[1] = readName();
+        inGame = true;
+        return true;
+    }
+
+    /**
+     * @return the dimension of the current game
+     */
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * @param playerId the player of interest
+     * @return the name of the player in the current game, empty if unknown
+     */
+    public String getPlayer(int playerId) {
+        return players[playerId - 1];
+    }
+
+    /**
+     * Reads the next move of the current game. A game that was cut off
+     * before its end marker ends at the end of the file.
+     *
+     * @return the move, or null if the game has no more moves
+     * @throws IOException if the record is cut off inside a move
+     */
+    public PlayerMove nextMove() throws IOException {
+        if (!inGame || !hasMore()) {
+            inGame = false;
+            return null;
+        }
+        long value = readVarint();
+        if (value == 0) {
+            inGame = false;
+            return null;
+        }
+        long cell = value >>> 1;
+        return new PlayerMove(new Coordinate((int) (cell / max),
+                (int) (cell % max)), (int) (value & 1) + 1);
+    }
+
+    /**
+     * Reads the whole next game.
+     *
+     * @return the game, or null if there are no more games
+     * @throws IOException if the record is cut off
+     */
+    public GameRecord readGame() throws IOException {
+        if (!nextGame()) {
+            return null;
+        }
+        GameRecord record = new GameRecord(dim, players[0], players[1]);
+        PlayerMove m;
+        while ((m = nextMove()) != null) {
+            record.addMove(m);
+        }
+        return record;
+    }
+
+    /**
+     * Replays every remaining game through a board. The board is reset with
+     * initPlayer at the start of each game and given each move with
+     * lastMove, then the visitor is called with the new position.
+     *
+     * @param board the board to replay through
+     * @param playerId the player id the board plays as
+     * @param visitor called for every position, may be null
+     * @return the number of positions replayed
+     * @throws IOException if the record is cut off
+     */
+    public long replay(teamDab board, int playerId, PositionVisitor visitor)
+            throws IOException {
+        long positions = 0;
+        while (nextGame()) {
+            board.initPlayer(dim, playerId);
+            int moveNumber = 0;
+            PlayerMove m;
+            while ((m = nextMove()) != null) {
+                board.lastMove(m);
+                moveNumber++;
+                positions++;
+                if (visitor != null) {
+                    visitor.visit(board, m, moveNumber);
+                }
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Closes the record file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Replays a record file and prints how fast it went.
+     *
+     * @param args the record file
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: GameRecordReader <record>");
+            return;
+        }
+        try (GameRecordReader reader =
+                     new GameRecordReader(Paths.get(args[0]))) {
+            long begin = System.nanoTime();
+            long positions = reader.replay(new teamDab(false), 1, null);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("%d positions in %.3f s (%.0f per second)%n",
+                    positions, seconds, positions / seconds);
+        }
+    }
+
+    /**
+     * Maps the window of the file starting at the given offset.
+     *
+     * @param offset the file offset to start at
+     * @throws IOException if the file cannot be mapped
+     */
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                Math.min(WINDOW, size - offset));
+    }
+
+    /**
+     * @return if there are unread bytes left in the file
+     */
+    private boolean hasMore() {
+        return windowStart + window.position() < size;
+    }
+
+    /**
+     * Reads one byte, mapping the next window when the current one runs out.
+     *
+     * @return the byte
+     * @throws IOException if the file has no more bytes
+     */
+    private byte readByte() throws IOException {
+        if (!window.hasRemaining()) {
+            if (!hasMore()) {
+                throw new EOFException("Game record is cut off");
+            }
+            map(windowStart + window.position());
+        }
+        return window.get();
+    }
+
+    /**
+     * Reads an unsigned varint written by GameRecordWriter.
+     *
+     * @return the value
+     * @throws IOException if the file ends inside the value
+     */
+    private long readVarint() throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads a name written by GameRecordWriter.
+     *
+     * @return the name
+     * @throws IOException if the file ends inside the name
+     */
+    private String readName() throws IOException {
+        byte[] bytes = new byte[(int) readVarint()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = readByte();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
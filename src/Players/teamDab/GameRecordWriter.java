@@ -0,0 +1,171 @@
+package Players.teamDab;
+
+import Interface.PlayerMove;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams games to the compact binary record format. A record file starts
+ * with the four bytes "PBR1" and then holds any number of games. Each game
+ * is a header followed by its moves, all as unsigned varints:
+ * <ul>
+ *     <li>DIM</li>
+ *     <li>the byte length and UTF-8 bytes of player 1's name</li>
+ *     <li>the byte length and UTF-8 bytes of player 2's name</li>
+ *     <li>one value per move, (row * (2 * DIM + 1) + column) * 2 +
+ *     (player id - 1)</li>
+ *     <li>a 0 to end the game</li>
+ * </ul>
+ * A move can never encode to 0 because the corner at row 0, column 0 is
+ * not playable. Most moves take one or two bytes.
+ * @author Mark Nash
+ */
+public class GameRecordWriter implements Closeable {
+
+    /** The bytes every record file starts with */
+    static final byte[] MAGIC = {'P', 'B', 'R', '1'};
+
+    /** Where the record is written */
+    private OutputStream out;
+
+    /** The maximum cells horizontally or vertically in the current game */
+    private int max;
+
+    /** Whether a game has been started and not yet ended */
+    private boolean inGame;
+
+    /**
+     * Constructor for GameRecordWriter class that writes a new record to a
+     * stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public GameRecordWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        this.out.write(MAGIC);
+        this.inGame = false;
+    }
+
+    /**
+     * Constructor for GameRecordWriter class that appends games to a record
+     * file, creating it if it does not exist.
+     *
+     * @param file the record file
+     * @throws IOException if the file cannot be opened
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        boolean empty = !Files.exists(file) || Files.size(file) == 0;
+        this.out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        if (empty) {
+            this.out.write(MAGIC);
+        }
+        this.inGame = false;
+    }
+
+    /**
+     * Starts a new game, ending the previous one if it was not ended.
+     *
+     * @param dim the dimension of the game board
+     * @param player1 the name of player 1, empty if unknown
+     * @param player2 the name of player 2, empty if unknown
+     * @throws IOException if the record cannot be written
+     */
+    public void startGame(int dim, String player1, String player2)
+            throws IOException {
+        endGame();
+        this.max = 2 * dim + 1;
+        writeVarint(dim);
+        writeName(player1);
+        writeName(player2);
+        inGame = true;
+    }
+
+    /**
+     * Appends a move to the current game.
+     *
+     * @param m the move to record
+     * @throws IOException if the record cannot be written
+     */
+    public void writeMove(PlayerMove m) throws IOException {
+        if (!inGame) {
+            throw new IllegalStateException("No game has been started");
+        }
+        long cell = (long) m.getCoordinate().getRow() * max +
+                m.getCoordinate().getCol();
+        writeVarint(cell * 2 + m.getPlayerId() - 1);
+    }
+
+    /**
+     * Ends the current game, if there is one, and flushes it.
+     *
+     * @throws IOException if the record cannot be written
+     */
+    public void endGame() throws IOException {
+        if (inGame) {
+            writeVarint(0);
+            inGame = false;
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes a whole game.
+     *
+     * @param record the game to write
+     * @throws IOException if the record cannot be written
+     */
+    public void write(GameRecord record) throws IOException {
+        startGame(record.getDim(), record.getPlayer(1), record.getPlayer(2));
+        for (PlayerMove m : record.getMoves()) {
+            writeMove(m);
+        }
+        endGame();
+    }
+
+    /**
+     * Ends the current game and closes the record.
+     *
+     * @throws IOException if the record cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        endGame();
+        out.close();
+    }
+
+    /**
+     * Writes a name as its byte length followed by its UTF-8 bytes.
+     *
+     * @param name the name to write
+     * @throws IOException if the record cannot be written
+     */
+    private void writeName(String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes an unsigned value seven bits at a time, lowest bits first, with
+     * the high bit of each byte set when more bytes follow.
+     *
+     * @param value the value to write
+     * @throws IOException if the record cannot be written
+     */
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
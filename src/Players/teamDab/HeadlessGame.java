@@ -0,0 +1,199 @@
+package Players.teamDab;
+
+import Interface.Coordinate;
+import Interface.PlayerModule;
+import Interface.PlayerMove;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays one game between two player modules without the GUI or the
+ * referee, the same way the referee does: each module is given initPlayer,
+ * asked for moves in turn, and told every move with lastMove. A module
+ * that throws or makes an illegal move is invalidated and loses. There is
+ * no time limit. teamDab modules choose their moves without looking at the
+ * clock, so a game between them, or one whose opponents are deterministic,
+ * plays out the same every time from the same Random.
+ * @author Mark Nash
+ */
+public class HeadlessGame {
+
+    /** The class of each AI module built into the game jar, by name */
+    private static final HashMap<String, String> BUILT_IN = new HashMap<>();
+
+    static {
+        BUILT_IN.put("CARELESS", "c.a.a");
+        BUILT_IN.put("DEFENSIVE", "c.b.a");
+        BUILT_IN.put("GOODPLAYER", "c.c.a");
+        BUILT_IN.put("OKPLAYER", "c.d.a");
+        BUILT_IN.put("RANDOM", "c.e.a");
+        BUILT_IN.put("TOUGHPLAYER", "c.f.a");
+    }
+
+    /**
+     * How a game ended.
+     */
+    public static class Result {
+
+        /** The id of the winning player */
+        private int winner;
+
+        /** The empty spaces left when the game ended */
+        private int spacesLeft;
+
+        /**
+         * Constructor for Result class.
+         *
+         * @param winner the id of the winning player
+         * @param spacesLeft the empty spaces left when the game ended
+         */
+        private Result(int winner, int spacesLeft) {
+            this.winner = winner;
+            this.spacesLeft = spacesLeft;
+        }
+
+        /**
+         * @return the id of the winning player
+         */
+        public int getWinner() {
+            return winner;
+        }
+
+        /**
+         * A winning path always cuts the other player off, so how decisive
+         * a game was shows in how soon it ended instead.
+         *
+         * @return the empty spaces left when the game ended
+         */
+        public int getSpacesLeft() {
+            return spacesLeft;
+        }
+    }
+
+    /**
+     * Creates a new instance of a module the way the game does from the
+     * PLAYERS line of a config file.
+     *
+     * @param name a built in name such as TOUGHPLAYER, or a module name
+     *             such as teamDab
+     * @return the new module
+     * @throws IllegalArgumentException if there is no such module
+     */
+    public static PlayerModule newPlayer(String name) {
+        String className = BUILT_IN.containsKey(name) ? BUILT_IN.get(name) :
+                "Players." + name + "." + name;
+        try {
+            return (PlayerModule) Class.forName(className)
+                    .getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("No player module " + name, e);
+        }
+    }
+
+    /**
+     * Plays a game to the end.
+     *
+     * @param one the module playing as player 1
+     * @param two the module playing as player 2
+     * @param dim the dimension of the game board
+     * @param randomMoves how many random moves to make before the modules
+     *                    start choosing, like NUMRANDOMMOVES
+     * @param random where the random moves come from
+     * @return the winner and how soon the game ended
+     */
+    public static Result play(PlayerModule one, PlayerModule two, int dim,
+                              int randomMoves, Random random) {
+        PlayerModule[] players = {null, one, two};
+        teamDab board = new teamDab(false);
+        board.initPlayer(dim, 1);
+        for (int id = 1; id <= 2; id++) {
+            try {
+                players[id].initPlayer(dim, id);
+            }
+            catch (RuntimeException e) {
+                return invalidate(board, players, id);
+            }
+        }
+
+        int turn = 1;
+        for (int moveNumber = 0; ; moveNumber++) {
+            PlayerMove m;
+            if (moveNumber < randomMoves) {
+                List<PlayerMove> legal = board.allLegalMoves();
+                m = new PlayerMove(legal.get(random.nextInt(legal.size()))
+                        .getCoordinate(), turn);
+            }
+            else {
+                try {
+                    m = players[turn].move();
+                }
+                catch (RuntimeException e) {
+                    return invalidate(board, players, turn);
+                }
+                if (!isLegal(board, m, turn)) {
+                    return invalidate(board, players, turn);
+                }
+            }
+            board.lastMove(m);
+            for (int id = 1; id <= 2; id++) {
+                try {
+                    players[id].lastMove(m);
+                }
+                catch (RuntimeException e) {
+                    return invalidate(board, players, id);
+                }
+            }
+            if (board.hasWonGame(turn)) {
+                return result(board, turn);
+            }
+            turn = turn == 1 ? 2 : 1;
+        }
+    }
+
+    /**
+     * @param board the referee's board
+     * @param m the move to check
+     * @param turn the player whose turn it is
+     * @return if the move is by the right player and on an empty playable
+     * space
+     */
+    private static boolean isLegal(teamDab board, PlayerMove m, int turn) {
+        if (m == null || m.getPlayerId() != turn) {
+            return false;
+        }
+        Coordinate c = m.getCoordinate();
+        return c != null && board.isOpen(c.getRow(), c.getCol());
+    }
+
+    /**
+     * Invalidates a player and tells the other one.
+     *
+     * @param board the referee's board
+     * @param players the modules, indexed by player id
+     * @param loser the id of the invalidated player
+     * @return the result, with the other player winning
+     */
+    private static Result invalidate(teamDab board, PlayerModule[] players,
+                                     int loser) {
+        int winner = loser == 1 ? 2 : 1;
+        try {
+            players[winner].otherPlayerInvalidated();
+        }
+        catch (RuntimeException e) {
+            // the game is already decided
+        }
+        return result(board, winner);
+    }
+
+    /**
+     * @param board the referee's board at the end of the game
+     * @param winner the id of the winning player
+     * @return the winner and how soon the game ended
+     */
+    private static Result result(teamDab board, int winner) {
+        return new Result(winner, board.allLegalMoves().size());
+    }
+}
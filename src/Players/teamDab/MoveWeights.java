@@ -0,0 +1,195 @@
+package Players.teamDab;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * The weights move() gives each feature of a candidate space. A space's
+ * score is the sum of each weight times its feature, and the highest
+ * scoring space is played. The defaults reproduce the original fixed
+ * preferences: block the other player's shortest path, preferably where it
+ * crosses ours, then where it is narrowest, then in an odd column.
+ * <p>
+ * Weights are stored in the same style as the config files, one
+ * "NAME value" line per weight, with blank lines and lines starting with #
+ * ignored.
+ * @author Mark Nash
+ */
+public class MoveWeights {
+
+    /** On one of the other player's shortest paths */
+    public static final int THEIR_PATH = 0;
+
+    /** On one of our shortest paths */
+    public static final int OUR_PATH = 1;
+
+    /** One over the width of the other player's shortest paths there */
+    public static final int THEIR_CRITICALITY = 2;
+
+    /** One over the width of our shortest paths there */
+    public static final int OUR_CRITICALITY = 3;
+
+    /** In an odd column */
+    public static final int ODD_COLUMN = 4;
+
+    /** One over one more than the other player's slack there */
+    public static final int THEIR_NEARNESS = 5;
+
+    /** One over one more than our slack there */
+    public static final int OUR_NEARNESS = 6;
+
+    /** The name of each weight in files */
+    public static final String[] NAMES = {"THEIR_PATH", "OUR_PATH",
+            "THEIR_CRITICALITY", "OUR_CRITICALITY", "ODD_COLUMN",
+            "THEIR_NEARNESS", "OUR_NEARNESS"};
+
+    /** The default value of each weight */
+    private static final double[] DEFAULTS = {100, 10, 5, 0, 0.01, 0, 0};
+
+    /** A typical amount to change each weight by while tuning */
+    private static final double[] STEPS = {20, 5, 2, 2, 0.5, 2, 2};
+
+    /** The weights loaded from the default file, once looked for */
+    private static MoveWeights loaded;
+
+    /** The value of each weight */
+    private double[] values;
+
+    /**
+     * Constructor for MoveWeights class. Starts with the defaults.
+     */
+    public MoveWeights() {
+        this.values = DEFAULTS.clone();
+    }
+
+    /**
+     * Constructor for MoveWeights class.
+     *
+     * @param values the value of each weight
+     */
+    public MoveWeights(double[] values) {
+        if (values.length != NAMES.length) {
+            throw new IllegalArgumentException("Expected " + NAMES.length +
+                    " weights, got " + values.length);
+        }
+        this.values = values.clone();
+    }
+
+    /**
+     * Returns the weights initPlayer uses when none were set. They are read
+     * once from the file named by the teamDab.weights system property, or
+     * from "teamDab-weights.txt" if it is not set. The defaults are used if
+     * there is no usable file.
+     *
+     * @return the weights to play with
+     */
+    public static synchronized MoveWeights getDefault() {
+        if (loaded == null) {
+            Path file = Paths.get(System.getProperty("teamDab.weights",
+                    "teamDab-weights.txt"));
+            loaded = new MoveWeights();
+            if (Files.isReadable(file)) {
+                try {
+                    loaded = load(file);
+                }
+                catch (IOException e) {
+                    loaded = new MoveWeights();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * @param index the weight of interest
+     * @return the value of the weight
+     */
+    public double get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return a copy of every weight in order
+     */
+    public double[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * @return a typical amount to change each weight by while tuning
+     */
+    public static double[] getSteps() {
+        return STEPS.clone();
+    }
+
+    /**
+     * Reads weights from a file. Weights missing from the file keep their
+     * defaults.
+     *
+     * @param file the file to read
+     * @return the weights
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static MoveWeights load(Path file) throws IOException {
+        double[] values = DEFAULTS.clone();
+        try (BufferedReader in = Files.newBufferedReader(file,
+                StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                int index = Arrays.asList(NAMES).indexOf(parts[0]);
+                if (parts.length != 2 || index == -1) {
+                    throw new IOException("Malformed weights line: " + line);
+                }
+                try {
+                    values[index] = Double.parseDouble(parts[1]);
+                }
+                catch (NumberFormatException e) {
+                    throw new IOException("Malformed weights line: " + line,
+                            e);
+                }
+            }
+        }
+        return new MoveWeights(values);
+    }
+
+    /**
+     * Writes the weights to a file, replacing it.
+     *
+     * @param file the file to write
+     * @param comment a line to put at the top of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file, String comment) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp,
+                StandardCharsets.UTF_8)) {
+            out.write("# " + comment + "\n");
+            for (int i = 0; i < NAMES.length; i++) {
+                out.write(NAMES[i] + " " + values[i] + "\n");
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < NAMES.length; i++) {
+            sb.append(i == 0 ? "" : " ").append(NAMES[i]).append('=')
+                    .append(String.format("%.4g", values[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package Players.teamDab;
+
+import Interface.PlayerMove;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how initPlayer, move() and fewestSegmentsToVictory scale with
+ * the board size. For each DIM a fresh teamDab is set up, the memory it
+ * holds on to is measured, a quarter of the empty spaces are filled with
+ * random moves, and then a number of moves are played, timing move() and
+ * fewestSegmentsToVictory for both players after every one. Times are
+ * also given per space, which stays about flat when a call takes linear
+ * time.
+ * @author Mark Nash
+ */
+public class ScalingBenchmark {
+
+    /** The board sizes measured when none are given */
+    private static final int[] DEFAULT_DIMS = {20, 50, 100, 200, 300, 500};
+
+    /** How many moves are timed on each board */
+    private static final int TIMED_MOVES = 10;
+
+    /** The seed of the random moves, so runs are comparable */
+    private static final long SEED = 20170304;
+
+    /**
+     * Prints one line of measurements per DIM.
+     * <p>
+     * {@code ScalingBenchmark [dim...]}, run with a heap large enough for
+     * the largest board, e.g. -Xmx1g for DIM 500.
+     *
+     * @param args the board sizes to measure
+     */
+    public static void main(String[] args) {
+        int[] dims = DEFAULT_DIMS;
+        if (args.length > 0) {
+            dims = new int[args.length];
+            for (int k = 0; k < args.length; k++) {
+                dims[k] = Integer.parseInt(args[k]);
+            }
+        }
+        System.out.printf("%5s %9s %12s %10s %10s %12s %12s %10s%n", "DIM",
+                "spaces", "initPlayer", "memory", "move()", "move/space",
+                "fewestSeg", "seg/space");
+        System.out.printf("%5s %9s %12s %10s %10s %12s %12s %10s%n", "",
+                "", "ms", "KB", "ms", "ns", "ms", "ns");
+        for (int dim : dims) {
+            measure(dim);
+        }
+    }
+
+    /**
+     * Measures one board size and prints the results.
+     *
+     * @param dim the dimension of the game board
+     */
+    private static void measure(int dim) {
+        long spaces = (2L * dim + 1) * (2L * dim + 1);
+        long before = usedMemory();
+        long begin = System.nanoTime();
+        teamDab player = new teamDab(false);
+        player.initPlayer(dim, 1);
+        double initMillis = (System.nanoTime() - begin) / 1e6;
+        long memory = usedMemory() - before;
+
+        List<PlayerMove> legal = new ArrayList<>(player.allLegalMoves());
+        Collections.shuffle(legal, new Random(SEED));
+        int turn = 1;
+        for (int k = 0; k < legal.size() / 4; k++) {
+            player.lastMove(new PlayerMove(legal.get(k).getCoordinate(),
+                    turn));
+            turn = turn == 1 ? 2 : 1;
+        }
+
+        long moveNanos = 0;
+        long segmentNanos = 0;
+        int moves = 0;
+        for (; moves < TIMED_MOVES; moves++) {
+            if (player.hasWonGame(1) || player.hasWonGame(2)) {
+                break;
+            }
+            PlayerMove m;
+            if (turn == 1) {
+                begin = System.nanoTime();
+                m = player.move();
+                moveNanos += System.nanoTime() - begin;
+            }
+            else {
+                m = new PlayerMove(player.allLegalMoves().get(0)
+                        .getCoordinate(), turn);
+            }
+            player.lastMove(m);
+            begin = System.nanoTime();
+            player.fewestSegmentsToVictory(1);
+            player.fewestSegmentsToVictory(2);
+            segmentNanos += System.nanoTime() - begin;
+            turn = turn == 1 ? 2 : 1;
+        }
+
+        double moveMillis = moveNanos / 1e6 / Math.max(1, (moves + 1) / 2);
+        double segmentMillis = segmentNanos / 1e6 / Math.max(1, moves * 2);
+        System.out.printf("%5d %9d %12.2f %10d %10.2f %12.1f %12.3f %10.1f%n",
+                dim, spaces, initMillis, memory / 1024, moveMillis,
+                moveMillis * 1e6 / spaces, segmentMillis,
+                segmentMillis * 1e6 / spaces);
+    }
+
+    /**
+     * @return the heap in use after collecting garbage
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 3; k++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
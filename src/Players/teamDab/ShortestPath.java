@@ -0,0 +1,107 @@
+package Players.teamDab;
+
+import Interface.Coordinate;
+
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * One shortest winning path of a player, read off the predecessors of that
+ * player's DistanceField. The path is only walked when it is first needed,
+ * and is only valid for the board version it was made for. Iterating goes
+ * from the space touching the finish edge back to the space touching the
+ * start edge, and includes spaces the player already occupies.
+ * @author Mark Nash
+ */
+public class ShortestPath implements Iterable<Coordinate> {
+
+    /** The distance field the path is read from */
+    private DistanceField field;
+
+    /** The board version the path was made for */
+    private int version;
+
+    /** The spaces on the path as row * max + column, set once walked */
+    private BitSet members;
+
+    /**
+     * Constructor for ShortestPath class. The field must already be current.
+     *
+     * @param field the distance field to read the path from
+     */
+    public ShortestPath(DistanceField field) {
+        this.field = field;
+        this.version = field.getVersion();
+        this.members = null;
+    }
+
+    /**
+     * @return the board version the path was made for
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return if the space is on this path
+     */
+    public boolean contains(int row, int column) {
+        if (members == null) {
+            BitSet walked = new BitSet();
+            for (Coordinate c : this) {
+                walked.set(c.getRow() * field.getMax() + c.getCol());
+            }
+            members = walked;
+        }
+        checkVersion();
+        return members.get(row * field.getMax() + column);
+    }
+
+    /**
+     * Walks the path one predecessor at a time.
+     *
+     * @return an iterator over the spaces on the path
+     * @throws ConcurrentModificationException if the board changed since
+     * the path was made
+     */
+    @Override
+    public Iterator<Coordinate> iterator() {
+        checkVersion();
+        return new Iterator<Coordinate>() {
+
+            /** The next space to return, -1 once the path is done */
+            private int next = field.getPathEnd();
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public Coordinate next() {
+                if (next == -1) {
+                    throw new NoSuchElementException();
+                }
+                checkVersion();
+                int max = field.getMax();
+                Coordinate c = new Coordinate(next / max, next % max);
+                next = field.getStartPredecessor(c.getRow(), c.getCol());
+                return c;
+            }
+        };
+    }
+
+    /**
+     * Makes sure the board has not changed since the path was made.
+     */
+    private void checkVersion() {
+        if (field.getVersion() != version) {
+            throw new ConcurrentModificationException(
+                    "The board changed since the path was made");
+        }
+    }
+}
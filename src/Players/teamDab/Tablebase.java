@@ -0,0 +1,434 @@
+package Players.teamDab;
+
+import Interface.Coordinate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A solved table of every position of a small board. Each playable space is
+ * one base 3 digit of the position's index (0 empty, 1 or 2 for the player
+ * on it), and the table holds one byte per position and player to move: the
+ * player that wins with best play, and how many total moves it takes them
+ * when the loser delays as long as possible. A board always ends with
+ * exactly one winner, so every position has a value.
+ * <p>
+ * The table is built by retrograde analysis: positions are solved in order
+ * of how few empty spaces they have, so every position's successors are
+ * already solved when it is reached. The whole board must fit in one long
+ * bitmask, which limits the table to DIM 3. A DIM 4 table would need 3^25
+ * positions.
+ * <p>
+ * The file format is the four bytes "PBT1", one byte of DIM, and then the
+ * table bytes with the index for player 1 to move at position * 2 and for
+ * player 2 at position * 2 + 1.
+ * @author Mark Nash
+ */
+public class Tablebase {
+
+    /** The bytes every tablebase file starts with */
+    private static final byte[] MAGIC = {'P', 'B', 'T', '1'};
+
+    /** The number of header bytes before the table */
+    private static final int HEADER = MAGIC.length + 1;
+
+    /** The bit of a table byte set when player 2 is the winner */
+    private static final int PLAYER_2_WINS = 0x80;
+
+    /** The bits of a table byte holding the number of moves to the win */
+    private static final int MOVES = 0x7F;
+
+    /** The loaded tablebase of each DIM, null if there is no file */
+    private static final HashMap<Integer, Tablebase> LOADED = new HashMap<>();
+
+    /** The dimension of the game board */
+    private int dim;
+
+    /** The maximum cells on the game board horizontally or vertically */
+    private int max;
+
+    /** The playable spaces in digit order */
+    private List<Coordinate> cells;
+
+    /** The place value of each digit */
+    private long[] powers;
+
+    /** The table bytes, starting after the header */
+    private ByteBuffer table;
+
+    /**
+     * Constructor for Tablebase class. Works out the playable spaces and
+     * their digits but does not fill the table.
+     *
+     * @param dim the dimension of the game board
+     */
+    private Tablebase(int dim) {
+        this.dim = dim;
+        this.max = 2 * dim + 1;
+        if (max * max > Long.SIZE) {
+            throw new IllegalArgumentException("DIM " + dim +
+                    " is too large for a tablebase");
+        }
+        this.cells = new ArrayList<>();
+        for (int i = 1; i < max - 1; i++) {
+            for (int j = 1; j < max - 1; j++) {
+                if (i % 2 == j % 2) {
+                    cells.add(new Coordinate(i, j));
+                }
+            }
+        }
+        this.powers = new long[cells.size() + 1];
+        powers[0] = 1;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1] * 3;
+        }
+    }
+
+    /**
+     * Returns the tablebase for the given DIM, loading it the first time it
+     * is asked for. Files are named dim followed by DIM and ".pbt", and are
+     * looked for in the directory named by the teamDab.tablebase system
+     * property, or in "tablebase" if it is not set. That is relative to the
+     * directory the JVM starts in, the project directory when the game is
+     * run from it as the config files expect.
+     * <p>
+     * No table ships with the project, since it is 3.2 MB. Until one is
+     * generated, by running {@code Tablebase 3} once from the project
+     * directory (see main), DIM 3 boards are answered by search instead.
+     *
+     * @param dim the dimension of the game board
+     * @return the tablebase, or null if there is no usable file for it,
+     * including one whose header gives a different DIM
+     */
+    public static synchronized Tablebase forDim(int dim) {
+        if (!LOADED.containsKey(dim)) {
+            Path file = Paths.get(System.getProperty("teamDab.tablebase",
+                    "tablebase"), "dim" + dim + ".pbt");
+            Tablebase tablebase = null;
+            if (Files.isReadable(file)) {
+                try {
+                    tablebase = load(file);
+                    if (tablebase.dim != dim) {
+                        tablebase = null;
+                    }
+                }
+                catch (IOException | IllegalArgumentException e) {
+                    tablebase = null;
+                }
+            }
+            LOADED.put(dim, tablebase);
+        }
+        return LOADED.get(dim);
+    }
+
+    /**
+     * Solves every position of the given DIM.
+     *
+     * @param dim the dimension of the game board
+     * @return the solved tablebase
+     */
+    public static Tablebase generate(int dim) {
+        Tablebase tb = new Tablebase(dim);
+        int n = tb.cells.size();
+        long positions = tb.powers[n];
+        if (positions * 2 > Integer.MAX_VALUE - HEADER) {
+            throw new IllegalArgumentException("DIM " + dim +
+                    " is too large for a tablebase");
+        }
+        byte[] values = new byte[(int) positions * 2];
+
+        long[] bits = new long[n];
+        for (int d = 0; d < n; d++) {
+            bits[d] = tb.bit(tb.cells.get(d).getRow(),
+                    tb.cells.get(d).getCol());
+        }
+        long fixed1 = 0;
+        long fixed2 = 0;
+        for (int i = 0; i < tb.max; i++) {
+            for (int j = 0; j < tb.max; j++) {
+                if (i % 2 != 0 && j % 2 == 0) {
+                    fixed1 |= tb.bit(i, j);
+                }
+                else if (i % 2 == 0 && j % 2 != 0) {
+                    fixed2 |= tb.bit(i, j);
+                }
+            }
+        }
+
+        // Solve positions with 0 empty spaces first, then 1, and so on
+        int[] digits = new int[n];
+        for (int empty = 0; empty <= n; empty++) {
+            for (long s = 0; s < positions; s++) {
+                long rest = s;
+                int count = 0;
+                long mask1 = fixed1;
+                long mask2 = fixed2;
+                for (int d = 0; d < n; d++) {
+                    digits[d] = (int) (rest % 3);
+                    rest /= 3;
+                    if (digits[d] == 0) {
+                        count++;
+                    }
+                    else if (digits[d] == 1) {
+                        mask1 |= bits[d];
+                    }
+                    else {
+                        mask2 |= bits[d];
+                    }
+                }
+                if (count != empty) {
+                    continue;
+                }
+                int winner = tb.connected(mask1, 1) ? 1 :
+                        (tb.connected(mask2, 2) ? 2 : 0);
+                for (int toMove = 1; toMove <= 2; toMove++) {
+                    values[(int) s * 2 + toMove - 1] = winner != 0 ?
+                            encode(winner, 0) :
+                            tb.solve(values, s, digits, toMove);
+                }
+            }
+        }
+        tb.table = ByteBuffer.wrap(values);
+        return tb;
+    }
+
+    /**
+     * Writes the tablebase to a file.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(MAGIC);
+            out.write(dim);
+            ByteBuffer copy = table.duplicate();
+            copy.position(0);
+            byte[] chunk = new byte[1 << 16];
+            while (copy.hasRemaining()) {
+                int length = Math.min(chunk.length, copy.remaining());
+                copy.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a tablebase file.
+     *
+     * @param file the file to read
+     * @return the tablebase
+     * @throws IOException if the file cannot be read or is not a tablebase
+     */
+    public static Tablebase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            if (mapped.remaining() < HEADER) {
+                throw new IOException("Not a tablebase: " + file);
+            }
+            mapped.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a tablebase: " + file);
+            }
+            Tablebase tb = new Tablebase(mapped.get());
+            if (mapped.remaining() != tb.powers[tb.cells.size()] * 2) {
+                throw new IOException("Tablebase is the wrong size: " + file);
+            }
+            tb.table = mapped.slice();
+            return tb;
+        }
+    }
+
+    /**
+     * @return the playable spaces in digit order
+     */
+    public List<Coordinate> getCells() {
+        return cells;
+    }
+
+    /**
+     * @param owners the player on each playable space in digit order, 0 for
+     *               empty
+     * @return the index of the position
+     */
+    public long index(int[] owners) {
+        long index = 0;
+        for (int d = 0; d < owners.length; d++) {
+            index += owners[d] * powers[d];
+        }
+        return index;
+    }
+
+    /**
+     * @param index a position index
+     * @param digit a playable space's digit
+     * @param player the player taking the space
+     * @return the index of the position after the player takes the space
+     */
+    public long after(long index, int digit, int player) {
+        return index + player * powers[digit];
+    }
+
+    /**
+     * @param index the position index
+     * @param toMove the player to move
+     * @return the player that wins with best play
+     */
+    public int winner(long index, int toMove) {
+        return (value(index, toMove) & PLAYER_2_WINS) != 0 ? 2 : 1;
+    }
+
+    /**
+     * @param index the position index
+     * @param toMove the player to move
+     * @return the total moves the winner needs when the loser delays as long
+     * as possible
+     */
+    public int movesToWin(long index, int toMove) {
+        return value(index, toMove) & MOVES;
+    }
+
+    /**
+     * Answers isWinnable for a position.
+     *
+     * @param index the position index
+     * @param userOfInt player to determine winnable status for
+     * @param currTurn player whose turn it is currently
+     * @param movesLeft num of total moves to win within
+     * @return if the player can guarantee a win within the moves
+     */
+    public boolean isWinnable(long index, int userOfInt, int currTurn,
+                              int movesLeft) {
+        return winner(index, currTurn) == userOfInt &&
+                movesToWin(index, currTurn) <= movesLeft;
+    }
+
+    /**
+     * Generates a tablebase file.
+     *
+     * @param args the DIM, and optionally the directory to write to
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: Tablebase <dim> [directory]");
+            return;
+        }
+        int dim = Integer.parseInt(args[0]);
+        Path dir = Paths.get(args.length == 2 ? args[1] : "tablebase");
+        long begin = System.nanoTime();
+        Tablebase tb = generate(dim);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("dim" + dim + ".pbt");
+        tb.write(file);
+        System.out.printf("%s: %d positions in %.3f s%n", file,
+                tb.powers[tb.cells.size()],
+                (System.nanoTime() - begin) / 1e9);
+    }
+
+    /**
+     * Works out the value of an unfinished position from its already
+     * solved successors. The player to move wins as fast as possible if any
+     * move wins, and otherwise loses as slowly as possible.
+     *
+     * @param values the table being filled
+     * @param s the position index
+     * @param digits the player on each playable space of the position
+     * @param toMove the player to move
+     * @return the table byte of the position
+     */
+    private byte solve(byte[] values, long s, int[] digits, int toMove) {
+        int other = toMove == 1 ? 2 : 1;
+        int fastestWin = Integer.MAX_VALUE;
+        int slowestLoss = -1;
+        for (int d = 0; d < digits.length; d++) {
+            if (digits[d] != 0) {
+                continue;
+            }
+            int child = values[(int) (s + toMove * powers[d]) * 2 + other - 1];
+            int moves = (child & MOVES) + 1;
+            int winner = (child & PLAYER_2_WINS) != 0 ? 2 : 1;
+            if (winner == toMove) {
+                fastestWin = Math.min(fastestWin, moves);
+            }
+            else {
+                slowestLoss = Math.max(slowestLoss, moves);
+            }
+        }
+        if (fastestWin != Integer.MAX_VALUE) {
+            return encode(toMove, fastestWin);
+        }
+        return encode(other, Math.max(slowestLoss, 0));
+    }
+
+    /**
+     * @param winner the winning player
+     * @param moves the total moves to the win
+     * @return the table byte
+     */
+    private static byte encode(int winner, int moves) {
+        return (byte) ((winner == 2 ? PLAYER_2_WINS : 0) | moves);
+    }
+
+    /**
+     * @param index the position index
+     * @param toMove the player to move
+     * @return the table byte
+     */
+    private int value(long index, int toMove) {
+        return table.get((int) (index * 2 + toMove - 1));
+    }
+
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return the space's bit in a board bitmask
+     */
+    private long bit(int row, int column) {
+        return 1L << (row * max + column);
+    }
+
+    /**
+     * Flood fills a player's spaces from their start edge, a whole
+     * wavefront at a time.
+     *
+     * @param mask the spaces the player occupies, including the fixed ones
+     * @param player the player of interest
+     * @return if the player's spaces connect their two edges
+     */
+    private boolean connected(long mask, int player) {
+        long left = 0;
+        long right = 0;
+        long top = 0;
+        long bottom = 0;
+        for (int i = 0; i < max; i++) {
+            left |= bit(i, 0);
+            right |= bit(i, max - 1);
+            top |= bit(0, i);
+            bottom |= bit(max - 1, i);
+        }
+        long reach = mask & (player == 1 ? left : top);
+        long goal = player == 1 ? right : bottom;
+        long previous = 0;
+        while (reach != previous) {
+            previous = reach;
+            reach |= (((reach & ~right) << 1) | ((reach & ~left) >>> 1) |
+                    (reach << max) | (reach >>> max)) & mask;
+        }
+        return (reach & goal) != 0;
+    }
+}
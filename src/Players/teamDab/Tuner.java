@@ -0,0 +1,306 @@
+package Players.teamDab;
+
+import Interface.PlayerModule;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the MoveWeights of move() by simultaneous perturbation stochastic
+ * approximation (SPSA). Every iteration nudges all weights at once in a
+ * random direction and its opposite, plays the two versions against each
+ * other and against the same opponents from the same openings, and steps
+ * the weights towards whichever version did better. Games are spread over
+ * every core. Every few iterations the current weights are measured
+ * against the opponents on a fixed set of openings, and the best so far are
+ * saved to the weights file, where initPlayer picks them up. Every version
+ * searches for forced wins with the same fixed number of positions, so a
+ * game's result depends on the weights and not on how busy the cores are.
+ * @author Mark Nash
+ */
+public class Tuner implements Closeable {
+
+    /** The smallest board size games are played on */
+    private static final int MIN_DIM = 4;
+
+    /** The largest board size games are played on */
+    private static final int MAX_DIM = 10;
+
+    /** The most random opening moves made before the modules choose */
+    private static final int MAX_RANDOM_MOVES = 3;
+
+    /** The seed of the fixed openings the weights are measured on */
+    private static final long BENCHMARK_SEED = 20170304;
+
+    /**
+     * The fewest openings the weights are measured on against each
+     * opponent. The built in opponents do not play the same game twice, so
+     * fewer would leave the measure mostly noise.
+     */
+    private static final int BENCHMARK_OPENINGS = 40;
+
+    /** How many iterations pass between measuring the weights */
+    private static final int CHECK_EVERY = 5;
+
+    /** The positions every version's move() searches for forced wins */
+    private static final int THREAT_NODES = 1000;
+
+    /** Where the games are played */
+    private ExecutorService pool;
+
+    /** The opponents every version plays, by name */
+    private List<String> opponents;
+
+    /** How many openings are played per match */
+    private int openings;
+
+    /** Where the perturbations and match openings come from */
+    private Random random;
+
+    /**
+     * Constructor for Tuner class.
+     *
+     * @param opponents the opponents every version plays, by name
+     * @param openings how many openings are played per match
+     * @param seed the seed for the perturbations and match openings
+     */
+    public Tuner(List<String> opponents, int openings, long seed) {
+        this.pool = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors());
+        this.opponents = opponents;
+        this.openings = openings;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Runs the tuning.
+     *
+     * @param start the weights to start from
+     * @param iterations how many SPSA iterations to run
+     * @param file where the best weights are saved
+     * @return the best weights found
+     * @throws IOException if the weights cannot be saved
+     * @throws ExecutionException if a game failed
+     * @throws InterruptedException if interrupted while waiting on games
+     */
+    public MoveWeights tune(MoveWeights start, int iterations, Path file)
+            throws IOException, ExecutionException, InterruptedException {
+        double[] theta = start.toArray();
+        double[] steps = MoveWeights.getSteps();
+        MoveWeights best = start;
+        double bestScore = benchmark(best);
+        System.out.printf("start: %.3f %s%n", bestScore, best);
+        if (!Files.exists(file)) {
+            best.save(file, String.format("Starting weights, benchmark %.3f",
+                    bestScore));
+        }
+
+        for (int k = 0; k < iterations; k++) {
+            double ck = 1.0 / Math.pow(k + 1, 0.101);
+            double ak = 0.5 / Math.pow(k + 1 + iterations / 10.0, 0.602);
+            double[] delta = new double[theta.length];
+            double[] plus = new double[theta.length];
+            double[] minus = new double[theta.length];
+            for (int i = 0; i < theta.length; i++) {
+                delta[i] = random.nextBoolean() ? 1 : -1;
+                plus[i] = theta[i] + ck * steps[i] * delta[i];
+                minus[i] = theta[i] - ck * steps[i] * delta[i];
+            }
+            double result = match(new MoveWeights(plus),
+                    new MoveWeights(minus));
+            for (int i = 0; i < theta.length; i++) {
+                theta[i] += ak * steps[i] * result / (2 * ck * delta[i]);
+            }
+            System.out.printf("iteration %d: %+.3f %s%n", k + 1, result,
+                    new MoveWeights(theta));
+
+            if ((k + 1) % CHECK_EVERY == 0 || k + 1 == iterations) {
+                MoveWeights current = new MoveWeights(theta);
+                double score = benchmark(current);
+                System.out.printf("benchmark: %.3f (best %.3f)%n", score,
+                        bestScore);
+                if (score > bestScore) {
+                    best = current;
+                    bestScore = score;
+                    best.save(file, String.format("Tuned by Tuner after %d " +
+                            "iterations, benchmark %.3f", k + 1, score));
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Stops the game threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Plays two versions against each other, with colours swapped, and
+     * each against every opponent from the same openings.
+     *
+     * @param plus one version
+     * @param minus the other version
+     * @return how much better plus did, from -1 to 1
+     * @throws ExecutionException if a game failed
+     * @throws InterruptedException if interrupted while waiting on games
+     */
+    private double match(MoveWeights plus, MoveWeights minus)
+            throws ExecutionException, InterruptedException {
+        List<Future<Double>> games = new ArrayList<>();
+        for (int g = 0; g < openings; g++) {
+            long seed = random.nextLong();
+            int ours = 1 + g % 2;
+            games.add(pool.submit(game(plus, minus, 1, seed)));
+            games.add(pool.submit(game(plus, minus, 2, seed)));
+            for (String opponent : opponents) {
+                games.add(pool.submit(game(plus, opponent, ours, seed)));
+                games.add(pool.submit(() -> -game(minus, opponent, ours,
+                        seed).call()));
+            }
+        }
+        double total = 0;
+        for (Future<Double> f : games) {
+            total += Math.signum(f.get());
+        }
+        return total / games.size();
+    }
+
+    /**
+     * Measures weights against every opponent on the fixed openings. Games
+     * are scored by how decisive they were, not just who won, so weights
+     * that already win every game can still be told apart.
+     *
+     * @param weights the weights to measure
+     * @return the average score of the games, see play
+     * @throws ExecutionException if a game failed
+     * @throws InterruptedException if interrupted while waiting on games
+     */
+    private double benchmark(MoveWeights weights)
+            throws ExecutionException, InterruptedException {
+        Random fixed = new Random(BENCHMARK_SEED);
+        List<Future<Double>> games = new ArrayList<>();
+        int count = Math.max(openings * 2, BENCHMARK_OPENINGS);
+        for (int g = 0; g < count; g++) {
+            long seed = fixed.nextLong();
+            for (String opponent : opponents) {
+                games.add(pool.submit(game(weights, opponent, 1 + g % 2,
+                        seed)));
+            }
+        }
+        double total = 0;
+        for (Future<Double> f : games) {
+            total += f.get();
+        }
+        return total / games.size();
+    }
+
+    /**
+     * A game of two versions of teamDab.
+     *
+     * @param first the weights of the version to score
+     * @param second the weights of the other version
+     * @param id the player id of the first version
+     * @param seed the seed of the game's board size and opening
+     * @return a task giving the first version's score, see play
+     */
+    private Callable<Double> game(MoveWeights first, MoveWeights second,
+                                  int id, long seed) {
+        return () -> {
+            teamDab other = new teamDab(false);
+            other.setWeights(second);
+            other.setThreatNodes(THREAT_NODES);
+            return play(first, other, id, seed);
+        };
+    }
+
+    /**
+     * A game of a version of teamDab against a named opponent.
+     *
+     * @param weights the weights of the version to score
+     * @param opponent the name of the opponent
+     * @param id the player id of the version
+     * @param seed the seed of the game's board size and opening
+     * @return a task giving the version's score, see play
+     */
+    private Callable<Double> game(MoveWeights weights, String opponent,
+                                  int id, long seed) {
+        return () -> play(weights, HeadlessGame.newPlayer(opponent), id,
+                seed);
+    }
+
+    /**
+     * Plays a game with a version of teamDab. A win scores 1 plus the
+     * fraction of the playable spaces still empty when it ended, so faster
+     * wins score more, and a loss scores the same negated, so slower losses
+     * score more.
+     *
+     * @param weights the weights of the version to score
+     * @param other the other module
+     * @param id the player id of the version
+     * @param seed the seed of the game's board size and opening
+     * @return the version's score, from -2 to 2, positive if it won
+     */
+    private static double play(MoveWeights weights, PlayerModule other,
+                               int id, long seed) {
+        Random opening = new Random(seed);
+        int dim = MIN_DIM + opening.nextInt(MAX_DIM - MIN_DIM + 1);
+        int randomMoves = opening.nextInt(MAX_RANDOM_MOVES + 1);
+        teamDab us = new teamDab(false);
+        us.setWeights(weights);
+        us.setThreatNodes(THREAT_NODES);
+        HeadlessGame.Result result = id == 1 ?
+                HeadlessGame.play(us, other, dim, randomMoves, opening) :
+                HeadlessGame.play(other, us, dim, randomMoves, opening);
+        int spaces = dim * dim + (dim - 1) * (dim - 1);
+        double score = 1 + result.getSpacesLeft() / (double) spaces;
+        return result.getWinner() == id ? score : -score;
+    }
+
+    /**
+     * Tunes the weights and saves the best to a file. Starts from the file
+     * if it exists.
+     * <p>
+     * {@code Tuner <iterations> <openings> <weights file> [opponent...]}
+     * where the opponents default to CARELESS and TOUGHPLAYER.
+     *
+     * @param args the arguments described above
+     * @throws Exception if the file cannot be read or written or a game
+     * failed
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: Tuner <iterations> <openings> " +
+                    "<weights file> [opponent...]");
+            return;
+        }
+        int iterations = Integer.parseInt(args[0]);
+        int openings = Integer.parseInt(args[1]);
+        Path file = Paths.get(args[2]);
+        List<String> opponents = args.length > 3 ?
+                Arrays.asList(args).subList(3, args.length) :
+                Arrays.asList("CARELESS", "TOUGHPLAYER");
+        MoveWeights start = Files.exists(file) ? MoveWeights.load(file) :
+                new MoveWeights();
+        try (Tuner tuner = new Tuner(opponents, openings,
+                System.nanoTime())) {
+            MoveWeights best = tuner.tune(start, iterations, file);
+            System.out.println("best: " + best);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package Players.teamDab;
 
 import Interface.*;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -12,8 +14,33 @@ import java.util.*;
 public class teamDab implements PlayerModulePart1, PlayerModulePart2,
         PlayerModulePart3, PlayerModule{
 
-    /** The graph that stores the spots on the game board */
-    private HashMap<Coordinate, Node> graph;
+    /** The most positions move() visits looking for forced wins */
+    private static final int THREAT_NODES = 4000;
+
+    /**
+     * The positions move() may visit looking for forced wins times the
+     * spaces on the board, since each position visited costs time linear in
+     * them. Large boards are searched less deeply instead of for longer.
+     */
+    private static final int THREAT_SPACES = 2000000;
+
+    /** The most moves of their own move() looks for a forced win in */
+    private static final int THREAT_DEPTH = 4;
+
+    /** The system property naming the file the referee's games go to */
+    private static final String RECORD_PROPERTY = "teamDab.record";
+
+    /**
+     * The record file named by RECORD_PROPERTY, shared by every module in
+     * the JVM and closed when it exits. Null until first needed.
+     */
+    private static GameRecordWriter propertyRecorder;
+
+    /** The module recording the current game to propertyRecorder, or null */
+    private static teamDab propertyRecorderOwner;
+
+    /** Who occupies each space on the game board */
+    private Board board;
 
     /** The dimensions of the game board */
     private int dim;
@@ -24,8 +51,67 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
     /** This player's player id */
     private int playerId;
 
-    /** A holder list for the vertexes usable for Dijkstra's algorithm run */
-    private List<Node> dijVertexHolder;
+    /** Counts the changes made to the board, used to tell stale results */
+    private int boardVersion;
+
+    /** The board as row bitmasks, null if it is too large for them */
+    private BitBoard bits;
+
+    /** The two-sided distance fields of each player, indexed by player id */
+    private DistanceField[] distanceFields;
+
+    /** The last shortest path read for each player, indexed by player id */
+    private ShortestPath[] shortestPaths;
+
+    /** The solved positions of this board size, null if there are none */
+    private Tablebase tablebase;
+
+    /** How move() weighs each feature of a space, see MoveWeights */
+    private MoveWeights weights;
+
+    /** How many more positions threatSearch may visit */
+    private int searchNodes;
+
+    /**
+     * The positions threatSearch may visit on any board, set with
+     * setThreatNodes, or 0 to work it out from the board size
+     */
+    private int threatNodes;
+
+    /** Where played games are recorded, set with setRecorder, or null */
+    private GameRecordWriter recorder;
+
+    /** Where the current game is being recorded, null if it is not */
+    private GameRecordWriter gameRecorder;
+
+    /** How many moves of the current game have been recorded */
+    private int recordedMoves;
+
+    /**
+     * Whether games go to the file named by RECORD_PROPERTY when no
+     * recorder was set. Only modules the referee plays with do this, never
+     * boards used inside other classes.
+     */
+    private boolean recordFromProperty;
+
+    /**
+     * Constructor for teamDab class, used by the referee. Games are
+     * recorded if the system property teamDab.record names a record file.
+     */
+    public teamDab() {
+        this(true);
+    }
+
+    /**
+     * Constructor for teamDab class.
+     *
+     * @param recordFromProperty whether to record games to the file named
+     *                           by the teamDab.record system property;
+     *                           false for boards used internally
+     */
+    teamDab(boolean recordFromProperty) {
+        this.recordFromProperty = recordFromProperty;
+    }
 
     /**
      * Method called to initialize a player module. Required task for Part 1.
@@ -33,6 +119,9 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
      * PlayerModule is created. The initPlayer method is called at the
      * beginning of each game, and must be able to reset the player
      * for the next game.
+     * <p>
+     * A board of the same size as the last game is cleared and reused
+     * instead of being built again.
      *
      * @param dim      size of the smaller dimension of the playing area for one
      *                 player. The grid of nodes for that player is of size
@@ -40,12 +129,65 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
      * @param playerId id (1 or 2) for this player.
      */
     public void initPlayer(int dim, int playerId) {
-        this.dim = dim;
-        this.max = 2 * dim + 1;
         this.playerId = playerId;
-        this.graph = new HashMap<>((int) Math.pow(max, 2) + 4);
-        this.dijVertexHolder = new LinkedList<>();
-        initGraph();
+        if (board != null && this.dim == dim) {
+            board.reset();
+            if (bits != null) {
+                bits.reset();
+            }
+            boardVersion++;
+        }
+        else {
+            this.dim = dim;
+            this.max = 2 * dim + 1;
+            this.board = new Board(dim);
+            this.bits = dim <= BitBoard.MAX_DIM ? new BitBoard(dim) : null;
+            this.boardVersion = 0;
+            this.distanceFields = new DistanceField[3];
+            this.distanceFields[1] = new DistanceField(board, 1);
+            this.distanceFields[2] = new DistanceField(board, 2);
+            this.shortestPaths = new ShortestPath[3];
+        }
+        this.tablebase = Tablebase.forDim(dim);
+        if (weights == null) {
+            weights = MoveWeights.getDefault();
+        }
+        startRecording();
+    }
+
+    /**
+     * Sets the weights move() plays with instead of the ones loaded by
+     * MoveWeights.getDefault.
+     *
+     * @param weights the weights to play with
+     */
+    public void setWeights(MoveWeights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Sets how many positions move() may visit looking for forced wins,
+     * instead of working it out from the board size. move() then depends
+     * only on the position and the weights, the same on every board size,
+     * which is what tuning needs to compare weights fairly.
+     *
+     * @param nodes the positions to visit, or 0 to go back to working it
+     *              out from the board size
+     */
+    void setThreatNodes(int nodes) {
+        this.threatNodes = nodes;
+    }
+
+    /**
+     * Records every game played from now on, starting with the current one.
+     *
+     * @param recorder where to record the games, null to stop recording
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+        if (recorder != null) {
+            startRecording();
+        }
     }
 
     /**
@@ -54,13 +196,47 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
      * call this method after verifying the validity of the current move. Thus,
      * you do not need to verify the move provided to this method. It is
      * guaranteed to be a valid move.
+     * <p>
+     * The move is also recorded if games are being recorded, and the
+     * recorded game is ended once the move completes a winning path.
      *
      * @param m PlayerMove representing the most recent move
      */
     public void lastMove(PlayerMove m) {
-        Node n = graph.get(m.getCoordinate());
-        n.setPlayerOccupied(m.getPlayerId());
-        setNeighbors(m.getCoordinate(), n);
+        applyMove(m);
+        if (gameRecorder != null) {
+            try {
+                gameRecorder.writeMove(m);
+                recordedMoves++;
+            }
+            catch (IOException | IllegalStateException e) {
+                dropRecording();
+                return;
+            }
+            if (getDistanceField(m.getPlayerId()).getShortest() == 0) {
+                endRecording();
+            }
+        }
+    }
+
+    /**
+     * Places a move on the board without recording it.
+     *
+     * @param m PlayerMove representing the move to place
+     */
+    private void applyMove(PlayerMove m) {
+        board.set(m.getCoordinate().getRow(), m.getCoordinate().getCol(),
+                m.getPlayerId());
+        if (bits != null) {
+            bits.set(m.getCoordinate().getRow(), m.getCoordinate().getCol(),
+                    m.getPlayerId());
+        }
+        boardVersion++;
+        for (int i = 1; i <= 2; i++) {
+            distanceFields[i].spaceTaken(m.getCoordinate().getRow(),
+                    m.getCoordinate().getCol(), m.getPlayerId(),
+                    boardVersion - 1, boardVersion);
+        }
     }
 
     /**
@@ -71,23 +247,21 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
      * This function will call all of the required moves for the other player
      * to win.
      * <p>
-     * Follows the predecessors on Dijkstra's algorithm back through the path
-     * At each required move (predecessor), lastMove() is called to connect
-     * that node to it's neighbors.
+     * Reads one shortest path off this player's distance field and places
+     * every empty space on it with applyMove(). The recorded game ends here
+     * since the remaining moves are never played.
      */
     public void otherPlayerInvalidated() {
-        this.fewestSegmentsToVictory(playerId);
-
-        Node start = graph.get(new Coordinate(-1, playerId == 1 ? 3 : 0));
-        Node finish = graph.get(new Coordinate(-1, playerId == 1 ? 1 : 2));
+        endRecording();
 
-        while (finish.getPredecessor() != start) {
-            Coordinate finishCoord = new Coordinate(finish.getPredecessor().
-                    getRow(), finish.getPredecessor().getColumn());
-            PlayerMove nextMove = new PlayerMove(finishCoord, playerId);
-
-            lastMove(nextMove);
-            finish = finish.getPredecessor();
+        List<Coordinate> required = new ArrayList<>();
+        for (Coordinate c : getShortestPath(playerId)) {
+            if (board.getOccupant(c) == 0) {
+                required.add(c);
+            }
+        }
+        for (Coordinate c : required) {
+            applyMove(new PlayerMove(c, playerId));
         }
     }
 
@@ -97,7 +271,19 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
      * See lastMove. An initial, working version of this method is required for
      * Part 2. It may be refined subsequently.
      * <p>
-     * Just plays the first legal move generated. Nothing fancy.
+     * Scores every empty space from the distance fields of both players
+     * and plays the best one. See MoveWeights for the features and how much
+     * each counts. The default weights block the other player's shortest
+     * path, preferably where it crosses ours, then where fewest other
+     * shortest paths get around it, then in an odd column. If the other
+     * player is already cut off, our own shortest paths are extended.
+     * Boards with a tablebase play the solved best move instead.
+     * <p>
+     * Before scoring, threatSearch looks for a forced win for either player
+     * a few moves deep. A winning move is played straight away, and only
+     * moves that stop the other player's forced wins are scored. The search
+     * visits a fixed number of positions, so the same position always gets
+     * the same move.
      *
      * @return a PlayerMove object representing the next move.
      */
@@ -105,241 +291,368 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
 
         int otherPlayer = (this.playerId == 1 ? 2 : 1);
 
-        Node otherPlayerFinish;
-        Node otherPlayerStart;
-        Node userOfIntFinish;
-        Node userOfIntStart;
+        if (tablebase != null) {
+            return tablebaseMove(otherPlayer);
+        }
 
-        if (this.playerId == 1) {
-            otherPlayerFinish = graph.get(new Coordinate(-1, 2));
-            otherPlayerStart = graph.get(new Coordinate(-1, 0));
-            userOfIntFinish = graph.get(new Coordinate(-1, 1));
-            userOfIntStart = graph.get(new Coordinate(-1, 3));
+        List<Coordinate> candidates = threatSearch(otherPlayer);
+        if (candidates.size() == 1) {
+            return new PlayerMove(candidates.get(0), this.playerId);
         }
 
-        else {
-            userOfIntFinish = graph.get(new Coordinate(-1, 2));
-            userOfIntStart = graph.get(new Coordinate(-1, 0));
-            otherPlayerFinish = graph.get(new Coordinate(-1, 1));
-            otherPlayerStart = graph.get(new Coordinate(-1, 3));
-        }
-
-        //Trace otherPlayer's shortest path & set flags
-        fewestSegmentsToVictory(otherPlayer);
-        Node currNodeOther = otherPlayerFinish;
-        while (currNodeOther.getPredecessor() != otherPlayerStart) {
-            currNodeOther = currNodeOther.getPredecessor();
-            currNodeOther.setUserFlag(otherPlayer);
-        }
-
-        //Trace userOfInt's shortest path & place segment
-        fewestSegmentsToVictory(this.playerId);
-        Node currNodeUserOfInt = userOfIntFinish;
-        ArrayList<PlayerMove> moves = new ArrayList<>();
-        while (currNodeUserOfInt.getPredecessor() != userOfIntStart) {
-            currNodeUserOfInt = currNodeUserOfInt.getPredecessor();
-            if (currNodeUserOfInt.getUserFlag() == otherPlayer) {
-                int xcoord = currNodeUserOfInt.getRow();
-                int ycoord = currNodeUserOfInt.getColumn();
-                PlayerMove p = new PlayerMove(new Coordinate(xcoord, ycoord), this.playerId);
-                moves.add(p);
+        DistanceField userOfInt = getDistanceField(this.playerId);
+        DistanceField other = getDistanceField(otherPlayer);
+
+        Coordinate best = null;
+        double bestScore = 0;
+        for (Coordinate c : candidates) {
+            int i = c.getRow();
+            int j = c.getCol();
+            double score = score(other, i, j, MoveWeights.THEIR_PATH,
+                    MoveWeights.THEIR_CRITICALITY,
+                    MoveWeights.THEIR_NEARNESS) +
+                    score(userOfInt, i, j, MoveWeights.OUR_PATH,
+                            MoveWeights.OUR_CRITICALITY,
+                            MoveWeights.OUR_NEARNESS) +
+                    (j % 2 == 1 ? weights.get(MoveWeights.ODD_COLUMN) : 0);
+            if (best == null || score > bestScore) {
+                best = c;
+                bestScore = score;
             }
         }
 
-        //Trace otherPlayer's shortest path & reset flags
-        fewestSegmentsToVictory(otherPlayer);
-        currNodeOther = otherPlayerFinish;
-        while (currNodeOther.getPredecessor() != otherPlayerStart) {
-            currNodeOther = currNodeOther.getPredecessor();
-            currNodeOther.setUserFlag(0);
-        }
+        return new PlayerMove(best, this.playerId);
+    }
 
-        if (moves.size() > 1) {
-            for (PlayerMove move : moves){
-                int ycoord = move.getCoordinate().getCol();
-                if (ycoord % 2 == 1){
-                    return move;
+    /**
+     * Looks for forced wins, one more move of each player's own at a time,
+     * until THREAT_DEPTH or the positions it may visit run out, see
+     * THREAT_SPACES and setThreatNodes. Only threats are searched: the
+     * player trying to win only moves on their own shortest paths, and the
+     * other player only answers on those paths, the same argument that lets
+     * isWinnable cut its moves when the budget is tight. At each depth a
+     * forced win of ours is played at once. If instead the other player
+     * could force a win from here were it their turn, only the moves on
+     * their shortest paths that stop it are kept. If no move stops a
+     * threat, the moves that stopped every shallower one are kept, so the
+     * loss is put off as long as possible.
+     *
+     * @param otherPlayer the other player's id
+     * @return the winning space alone, or the spaces worth scoring in
+     * row-major order
+     */
+    private List<Coordinate> threatSearch(int otherPlayer) {
+        List<Coordinate> candidates = new ArrayList<>();
+        for (int i = 1; i < max - 1; i++) {
+            for (int j = 1; j < max - 1; j++) {
+                if (board.getOccupant(i, j) == 0) {
+                    candidates.add(new Coordinate(i, j));
                 }
             }
         }
-
-        return moves.get(0);
+        searchNodes = threatNodes > 0 ? threatNodes :
+                Math.min(THREAT_NODES, THREAT_SPACES / (max * max));
+        try {
+            for (int k = 1; k <= THREAT_DEPTH; k++) {
+                int movesLeft = 2 * k - 1;
+                if (getDistanceField(playerId).getShortest() <= k) {
+                    for (PlayerMove p : searchMoves(playerId, playerId,
+                            movesLeft, true)) {
+                        if (winsAfter(p.getCoordinate(), playerId, playerId,
+                                otherPlayer, movesLeft - 1, true)) {
+                            return Collections.singletonList(
+                                    p.getCoordinate());
+                        }
+                    }
+                }
+                if (search(otherPlayer, otherPlayer, movesLeft, true)) {
+                    List<Coordinate> blocks = new ArrayList<>();
+                    DistanceField theirs = getDistanceField(otherPlayer);
+                    for (Coordinate c : candidates) {
+                        if (theirs.isOnShortestPath(c.getRow(), c.getCol())) {
+                            blocks.add(c);
+                        }
+                    }
+                    List<Coordinate> refutations = new ArrayList<>();
+                    for (Coordinate c : blocks) {
+                        if (!winsAfter(c, playerId, otherPlayer, otherPlayer,
+                                movesLeft, true)) {
+                            refutations.add(c);
+                        }
+                    }
+                    if (refutations.isEmpty()) {
+                        break;
+                    }
+                    candidates = refutations;
+                }
+            }
+        }
+        catch (SearchAborted e) {
+            // the deepest finished depth stands
+        }
+        return candidates;
     }
 
-
-
     /**
-     * Part 1 task that tests if a player has won the game
-     * given a set of PREMOVEs.
+     * Tries a move and searches the position after it.
      *
-     * Does a breath-first search from start pointer node to ending pointer
-     * node. If a path exists, it returns true.
+     * @param c the space to move on
+     * @param mover the player making the move
+     * @param userOfInt player to determine winnable status for
+     * @param currTurn player whose turn it is after the move
+     * @param movesLeft num of total moves left after the move
+     * @param threatsOnly whether only threats are searched, see search
+     * @return the answer of search after the move
+     */
+    private boolean winsAfter(Coordinate c, int mover, int userOfInt,
+                              int currTurn, int movesLeft,
+                              boolean threatsOnly) {
+        PlayerMove m = new PlayerMove(c, mover);
+        applyMove(m);
+        try {
+            return search(userOfInt, currTurn, movesLeft, threatsOnly);
+        }
+        finally {
+            undoMove(m);
+        }
+    }
+
+    /**
+     * Scores how much an empty space matters to one player's shortest paths.
      *
-     * @param var1 player to test for a winning path.
-     * @return boolean value indicating if the player has a winning path.
+     * @param field the player's distance field
+     * @param row the row of the space
+     * @param column the column of the space
+     * @param path the weight for being on a shortest path
+     * @param criticality the weight for one over the path width there
+     * @param nearness the weight for one over one more than the slack there
+     * @return the weighted score
      */
-    public boolean hasWonGame(int var1) {
-        Node start;
-        Node end;
-        if (var1 == 1) {
-            start = graph.get(new Coordinate(-1, 3));
-            end = graph.get(new Coordinate(-1, 1));
+    private double score(DistanceField field, int row, int column, int path,
+                         int criticality, int nearness) {
+        int slack = field.getSlack(row, column);
+        if (slack == DistanceField.UNREACHABLE) {
+            return 0;
         }
-        else {
-            start = graph.get(new Coordinate(-1, 0));
-            end = graph.get(new Coordinate(-1, 2));
-        }
-        Queue<Node> queue = new LinkedList<>();
-        queue.add(start);
-        Set<Node> visited = new HashSet<>();
-        visited.add(start);
-        while (!queue.isEmpty()) {
-            Node current = queue.remove();
-            if (current == end) {
-                return true;
-            }
-            for (Node nbr : current.getNeighbors()) {
-                if (nbr == null) {
-                    continue;
-                }
-                if (nbr.getPlayerOccupied() == var1 &&
-                        !visited.contains(nbr)) {
-                    visited.add(nbr);
-                    queue.add(nbr);
-                }
-            }
+        double score = weights.get(nearness) / (slack + 1);
+        if (slack == 0) {
+            score += weights.get(path) +
+                    weights.get(criticality) / field.getLayerWidth(row, column);
         }
-        return false;
+        return score;
     }
 
     /**
-     * Initializes the game board in the graph and the imaginary pointer nodes
+     * Picks the move the tablebase says wins fastest, or if every move
+     * loses, the one that loses slowest.
+     *
+     * @param otherPlayer the other player's id
+     * @return a PlayerMove object representing the next move.
      */
-    private void initGraph() {
-        for (int i = 0; i < max; i++) {
-            for (int j = 0; j < max; j++) {
-                Coordinate coord = new Coordinate(i, j);
-                if ((i % 2 == 0 && j % 2 == 0) || (i % 2 != 0 && j % 2 != 0)) {
-                    Node n = new Node(0);
-                    place(coord, n);
-                    setNeighbors(new Coordinate(i, j), n);
-                }
-                else {
-                    Node n = new Node(0);
-                    place(coord, n);
-                    setNeighbors(new Coordinate(i, j), n);
-                    if (i % 2 == 0 && j % 2 != 0) {
-                        n.setPlayerOccupied(2);
-                    }
-                    else {
-                        n.setPlayerOccupied(1);
-                    }
-                }
+    private PlayerMove tablebaseMove(int otherPlayer) {
+        long index = tablebaseIndex();
+        List<Coordinate> cells = tablebase.getCells();
+        Coordinate best = null;
+        boolean bestWins = false;
+        int bestMoves = 0;
+        for (int d = 0; d < cells.size(); d++) {
+            if (board.getOccupant(cells.get(d)) != 0) {
+                continue;
+            }
+            long after = tablebase.after(index, d, playerId);
+            boolean wins = tablebase.winner(after, otherPlayer) == playerId;
+            int moves = tablebase.movesToWin(after, otherPlayer);
+            if (best == null || (wins && !bestWins) ||
+                    (wins == bestWins && (wins ? moves < bestMoves :
+                            moves > bestMoves))) {
+                best = cells.get(d);
+                bestWins = wins;
+                bestMoves = moves;
             }
         }
-        // Creates the four side pointer nodes. mutually assigns their neighbors
-        Node n0 = new Node(2);
-        place(new Coordinate(-1, 0), n0);
-        Node n1 = new Node(1);
-        place(new Coordinate(-1, 1), n1);
-        Node n2 = new Node(2);
-        place(new Coordinate(-1, 2), n2);
-        Node n3 = new Node(1);
-        place(new Coordinate(-1, 3), n3);
-        for (int i = 1; i < max; i += 2) {
-            n0.getNeighbors().add(graph.get(new Coordinate(0, i)));
-            graph.get(new Coordinate(0, i)).getNeighbors().set(0, n0);
-            n1.getNeighbors().add(graph.get(new Coordinate(i, 2 * dim)));
-            graph.get(new Coordinate(i, 2 * dim)).getNeighbors().set(1, n1);
-            n2.getNeighbors().add(graph.get(new Coordinate(2 * dim, i)));
-            graph.get(new Coordinate(2 * dim, i)).getNeighbors().set(2, n2);
-            n3.getNeighbors().add(graph.get(new Coordinate(i, 0)));
-            graph.get(new Coordinate(i, 0)).getNeighbors().set(3, n3);
+        return new PlayerMove(best, playerId);
+    }
+
+    /**
+     * @return the tablebase index of the current position
+     */
+    private long tablebaseIndex() {
+        List<Coordinate> cells = tablebase.getCells();
+        int[] owners = new int[cells.size()];
+        for (int d = 0; d < owners.length; d++) {
+            owners[d] = board.getOccupant(cells.get(d));
         }
+        return tablebase.index(owners);
     }
 
     /**
-     * @param coord the coordinate of interest
-     * @return if the coordinate is not on the top border of the game board
+     * Brings the given player's distance fields up to date with the board
+     * and returns them.
+     *
+     * @param player the player of interest
+     * @return the player's two-sided distance field
      */
-    private boolean isNotTopBorder(Coordinate coord) {
-        return coord.getRow() != 0;
+    private DistanceField getDistanceField(int player) {
+        DistanceField field = distanceFields[player];
+        field.refresh(boardVersion);
+        return field;
     }
 
     /**
-     * @param coord the coordinate of interest
-     * @return if the coordinate is not on the right border of the game board
+     * Returns a shortest winning path for the given player, reusing the last
+     * one read if the board has not changed since.
+     *
+     * @param player the player of interest
+     * @return the player's shortest path
      */
-    private boolean isNotRightBorder(Coordinate coord) {
-        return coord.getCol() != max-1;
+    private ShortestPath getShortestPath(int player) {
+        DistanceField field = getDistanceField(player);
+        if (shortestPaths[player] == null ||
+                shortestPaths[player].getVersion() != field.getVersion()) {
+            shortestPaths[player] = new ShortestPath(field);
+        }
+        return shortestPaths[player];
     }
 
     /**
-     * @param coord the coordinate of interest
-     * @return if the coordinate is not on the bottom border of the game board
+     * Starts recording the current game to the recorder that was set, or
+     * else to the file named by the teamDab.record system property. When
+     * two modules in the JVM record to that file, such as teamDab playing
+     * itself, only one of them records each game. Recording is dropped
+     * rather than letting a bad file stop the game.
      */
-    private boolean isNotBottomBorder(Coordinate coord) {
-        return coord.getRow() != max-1;
+    private void startRecording() {
+        if (gameRecorder != null && gameRecorder == propertyRecorder) {
+            releasePropertyRecorder(this);
+        }
+        gameRecorder = recorder;
+        if (gameRecorder == null && recordFromProperty) {
+            gameRecorder = claimPropertyRecorder(this);
+        }
+        recordedMoves = 0;
+        if (gameRecorder != null && board != null) {
+            try {
+                gameRecorder.startGame(dim, playerId == 1 ? "teamDab" : "",
+                        playerId == 2 ? "teamDab" : "");
+            }
+            catch (IOException e) {
+                dropRecording();
+            }
+        }
     }
 
     /**
-     * @param coord the coordinate of interest
-     * @return if the coordinate is not on the left border of the game board
+     * Ends the recorded game, if there is one. Later moves of the game are
+     * not recorded.
      */
-    private boolean isNotLeftBorder(Coordinate coord) {
-        return coord.getCol() != 0;
+    private void endRecording() {
+        if (gameRecorder == null) {
+            return;
+        }
+        try {
+            gameRecorder.endGame();
+        }
+        catch (IOException e) {
+            dropRecording();
+            return;
+        }
+        if (gameRecorder == propertyRecorder) {
+            releasePropertyRecorder(this);
+        }
+        gameRecorder = null;
     }
 
     /**
-     * An expedited process for checking if a coordinate is a on the border
-     * of the game board, and not a playable move.
-     * @param c the coordinate of interest
-     * @return if a coordinate is not on the border of the game board.
+     * Stops recording after the record could not be written.
      */
-    private boolean isNotABoarder(Coordinate c) {
-        return (isNotTopBorder(c) && isNotRightBorder(c) &&
-                isNotBottomBorder(c) && isNotLeftBorder(c));
+    private void dropRecording() {
+        if (gameRecorder == propertyRecorder) {
+            releasePropertyRecorder(this);
+        }
+        else {
+            recorder = null;
+        }
+        gameRecorder = null;
     }
 
     /**
-     * Mutually sets all of the given node's neighbors.
-     * @param coord the coordinate of interest
-     * @param n the node of interest
+     * Lets a module record the game it is starting to the file named by the
+     * teamDab.record system property, opening the file the first time. A
+     * module already recording a game keeps it while that game has no
+     * moves yet, since the other module is then starting the same game.
+     *
+     * @param module the module starting a game
+     * @return the shared record file, or null if the module should not
+     * record this game
      */
-    private void setNeighbors(Coordinate coord, Node n) {
-        if (isNotTopBorder(coord)) {
-            Node topNeighbor = graph.get(new Coordinate(coord.getRow()
-                    - 1, coord.getCol()));
-            n.setTopNeighbor(topNeighbor);
+    private static synchronized GameRecordWriter claimPropertyRecorder(
+            teamDab module) {
+        String file = System.getProperty(RECORD_PROPERTY);
+        if (file == null || (propertyRecorderOwner != null &&
+                propertyRecorderOwner != module &&
+                propertyRecorderOwner.recordedMoves == 0)) {
+            return null;
         }
-        if (isNotRightBorder(coord)) {
-            Node rightNeighbor = graph.get(new Coordinate(coord.getRow(), coord
-                    .getCol() + 1));
-            n.setRightNeighbor(rightNeighbor);
+        if (propertyRecorder == null) {
+            try {
+                propertyRecorder = new GameRecordWriter(Paths.get(file));
+            }
+            catch (IOException e) {
+                return null;
+            }
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(teamDab::closePropertyRecorder));
+        }
+        if (propertyRecorderOwner != null) {
+            propertyRecorderOwner.gameRecorder = null;
         }
-        if (isNotBottomBorder(coord)) {
-            Node bottomNeighbor = graph.get(new Coordinate(coord.getRow() + 1,
-                    coord.getCol()));
-            n.setBottomNeighbor(bottomNeighbor);
+        propertyRecorderOwner = module;
+        return propertyRecorder;
+    }
+
+    /**
+     * Gives up the shared record file if the module holds it.
+     *
+     * @param module the module giving it up
+     */
+    private static synchronized void releasePropertyRecorder(
+            teamDab module) {
+        if (propertyRecorderOwner == module) {
+            propertyRecorderOwner = null;
         }
-        if (isNotLeftBorder(coord)) {
-            Node leftNeighbor = graph.get(new Coordinate(coord.getRow(), coord
-                    .getCol() - 1));
-            n.setLeftNeighbor(leftNeighbor);
+    }
+
+    /**
+     * Ends any game in progress and closes the shared record file.
+     */
+    private static synchronized void closePropertyRecorder() {
+        if (propertyRecorder != null) {
+            try {
+                propertyRecorder.close();
+            }
+            catch (IOException e) {
+                // nothing more can be recorded anyway
+            }
+            propertyRecorder = null;
+            propertyRecorderOwner = null;
         }
     }
 
     /**
-     * A helper method to put a coordinate-node pair in the graph, but also
-     * assign the node's row and column values when we need to reverse get
-     * from the graph.
-     * @param c the coordinate of the node to put in the graph.
-     * @param n the node to put in the graph.
+     * Part 1 task that tests if a player has won the game
+     * given a set of PREMOVEs.
+     *
+     * Boards that fit in a BitBoard are flood filled a row at a time.
+     * Larger ones check that the player needs no more segments.
+     *
+     * @param var1 player to test for a winning path.
+     * @return boolean value indicating if the player has a winning path.
      */
-    private void place(Coordinate c, Node n) {
-        graph.put(c, n);
-        n.setRow(c.getRow());
-        n.setColumn(c.getCol());
+    public boolean hasWonGame(int var1) {
+        if (bits != null) {
+            return bits.hasWon(var1);
+        }
+        return getDistanceField(var1).getShortest() == 0;
     }
 
     /**
@@ -358,7 +671,7 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
         LinkedList<PlayerMove> ll = new LinkedList<>();
         for (int i = 1; i < max - 1; i++) {
             for (int j = 1; j < max - 1; j++) {
-                if (graph.get(new Coordinate(i, j)).getPlayerOccupied() == 0) {
+                if (board.getOccupant(i, j) == 0) {
                     ll.add(new PlayerMove(new Coordinate(i, j), playerId));
                 }
             }
@@ -366,132 +679,45 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
         return ll;
     }
 
+    /**
+     * @param row the row of the space
+     * @param column the column of the space
+     * @return if the space is one a move can be made on: off the border and
+     * empty
+     */
+    boolean isOpen(int row, int column) {
+        return board.isInside(row, column) &&
+                board.getOccupant(row, column) == 0;
+    }
+
     /**
      * Part 2 task that computes the fewest segments that
      * a given player needs to add to complete a winning
      * path.
      *
-     * An implementation of dijkstra's algorithm to this game board. returns
-     * the shortest distance.
+     * Boards that fit in a BitBoard grow the reachable region a segment at
+     * a time. Larger ones read the player's distance field, a 0-1
+     * breadth-first search that takes time linear in the board's spaces.
      *
      * @param i the player of interest
      * @return the fewest number of segments to add to complete a path
      */
     @Override
     public int fewestSegmentsToVictory(int i) {
-        Node start = graph.get(new Coordinate(-1, i == 1 ? 3 : 0));
-        Node finish =  graph.get(new Coordinate(-1, i == 1 ? 1 : 2));
-        initDijkstra(start, finish, i);
-        Node current;
-        while (!dijVertexHolder.isEmpty()) {
-            current = dequeueMin(dijVertexHolder);
-            List<Node> neighbors = getDijkstraNeighbors(current, start,
-                    finish, i);
-            if (current.getDistance() == Integer.MAX_VALUE) {
-                break;
-            }
-            for (Node nbr : neighbors) {
-                int distThroughNbr = current.getDistance() + 1;
-                if (distThroughNbr < nbr.getDistance()) {
-                    nbr.setDistance(distThroughNbr);
-                    nbr.setPredecessor(current);
-                }
+        int segments;
+        if (bits != null) {
+            segments = bits.fewestSegments(i);
+            if (segments == BitBoard.UNREACHABLE) {
+                return Integer.MAX_VALUE - 1;
             }
         }
-        return finish.getDistance() - 1;
-    }
-
-    /**
-     * Initializes a list that stores the start and finish nodes as well as
-     * any node that is either (an empty space that is not on the border) or
-     * a space of that player.
-     *
-     * @param start the starting pointer node
-     * @param finish the finishing pointer node
-     * @param id the player id to check for
-     */
-    private void initDijkstra(Node start, Node finish, int id) {
-        start.setDistance(0);
-        start.setPredecessor(null);
-        finish.setDistance(Integer.MAX_VALUE);
-        finish.setPredecessor(null);
-        dijVertexHolder.add(start);
-        for (int i = 0; i < max; i++) {
-            for (int j = 0; j < max; j++) {
-                Coordinate coord = new Coordinate(i, j);
-                Node current = graph.get(coord);
-                if (current.getPlayerOccupied() == (id == 1 ? 2 : 1)) {
-                    continue;
-                }
-                if (current.getPlayerOccupied() == 0 && !isNotABoarder(coord)) {
-                    continue;
-                }
-                current.setPredecessor(null);
-                current.setDistance(Integer.MAX_VALUE);
-                dijVertexHolder.add(current);
-            }
-        }
-    }
-
-    /**
-     * Takes a current node, a start, and a finish and returns the list of
-     * neighbors at the end of that path created from the start node.
-     *
-     * @param n Node to check Neighbors for
-     * @param start Start Node
-     * @param finish Finish Node
-     * @param id PlayerId
-     * @return A list of all of the neighbors at the end of a path
-     */
-    private List<Node> getDijkstraNeighbors(Node n, Node start, Node finish,
-                                            int id) {
-        List<Node> neighbors = new ArrayList<>();
-        Queue<Node> queue = new LinkedList<>();
-        queue.add(n);
-        Set<Node> visited = new HashSet<>();
-        visited.add(start);
-        visited.add(n);
-        while (!queue.isEmpty()) {
-            Node current = queue.remove();
-            for (Node nbr : current.getNeighbors()) {
-                if (nbr == null) {
-                    continue;
-                }
-                if (nbr.getPlayerOccupied() == id && !visited.contains(nbr)) {
-                    visited.add(nbr);
-                    if (nbr != finish) {
-                        queue.add(nbr);
-                    }
-                    else {
-                        neighbors.add(nbr);
-                    }
-                }
-                else if (!visited.contains(nbr) && nbr.getPlayerOccupied() == 0
-                        && isNotABoarder(new Coordinate(nbr.getRow(),
-                        nbr.getColumn()))) {
-                    visited.add(nbr);
-                    neighbors.add(nbr);
-                }
-            }
-        }
-        return neighbors;
-    }
-
-    /**
-     * Searches through the priorityQ list and removes (and returns) the item
-     * with the smallest distance from the start node
-     *
-     * @param priorityQ List of Nodes for Dijkstra's Al
-     * @return Node with the smallest distance from the start node
-     */
-    private Node dequeueMin(List<Node> priorityQ) {
-        Node minNode = priorityQ.get(0);  // start off with first one
-        for (Node n : priorityQ) { // checks first one again...
-            if(n.getDistance() < minNode.getDistance()) {
-                minNode = n;
+        else {
+            segments = getDistanceField(i).getShortest();
+            if (segments == DistanceField.UNREACHABLE) {
+                return Integer.MAX_VALUE - 1;
             }
         }
-        return priorityQ.remove(priorityQ.indexOf(minNode));
+        return segments;
     }
 
     /**
@@ -506,10 +732,40 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
      *                  requirement to return a value of true
      * @return boolean indicating whether it is possible for the indicated
      * player to guarantee a win after the specified number of total moves.
+     * <p>
+     * Boards with a tablebase are looked up directly. Other positions are
+     * searched, see search.
      */
     @Override
     public boolean isWinnable(int userOfInt, int currTurn, int movesLeft) {
+        if (tablebase != null) {
+            return tablebase.isWinnable(tablebaseIndex(), userOfInt, currTurn,
+                    movesLeft);
+        }
+        return search(userOfInt, currTurn, movesLeft, false);
+    }
+
+    /**
+     * Searches whether the player of interest can force a win. Each player
+     * takes turns trying their moves, and a branch is cut as soon as the
+     * player of interest needs more segments than they have moves left.
+     * A search of threats only, started by threatSearch, counts the
+     * positions it visits and throws SearchAborted once searchNodes runs
+     * out, with the board put back as it was.
+     *
+     * @param userOfInt player to determine winnable status for
+     * @param currTurn player whose turn it is currently
+     * @param movesLeft num of total moves left
+     * @param threatsOnly whether both players only move on the shortest
+     *                    paths of the player of interest
+     * @return whether the player can guarantee a win in the moves left
+     */
+    private boolean search(int userOfInt, int currTurn, int movesLeft,
+                           boolean threatsOnly) {
         int otherPlayer = (userOfInt == 1 ? 2 : 1);
+        if (threatsOnly && --searchNodes < 0) {
+            throw new SearchAborted();
+        }
         if (movesLeft == 0) {
             return hasWonGame(userOfInt);
         }
@@ -519,36 +775,67 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
         else if (currTurn == userOfInt && hasWonGame(otherPlayer)) {
             return false;
         }
+        else if (getDistanceField(userOfInt).getShortest() >
+                (currTurn == userOfInt ? movesLeft + 1 : movesLeft) / 2) {
+            return false;
+        }
         else {
 
             //It's User Of Int's Turn
             if (userOfInt == currTurn) {
-                for (PlayerMove p : allLegalMoves()) {
-                    lastMove(p);
-                    if(isWinnable(userOfInt, otherPlayer, movesLeft-1)) {
-                        undoMove(p);
+                for (PlayerMove p : searchMoves(userOfInt, currTurn,
+                        movesLeft, threatsOnly)) {
+                    if (winsAfter(p.getCoordinate(), currTurn, userOfInt,
+                            otherPlayer, movesLeft - 1, threatsOnly)) {
                         return true;
                     }
-                    undoMove(p);
                 }
                 return false;
             }
 
             //It Ain't
             else {
-                for (PlayerMove p : allLegalMoves()) {
-                    lastMove(p);
-                    if(!isWinnable(userOfInt, otherPlayer, movesLeft-1)) {
-                        undoMove(p);
+                for (PlayerMove p : searchMoves(userOfInt, currTurn,
+                        movesLeft, threatsOnly)) {
+                    if (!winsAfter(p.getCoordinate(), currTurn, userOfInt,
+                            userOfInt, movesLeft - 1, threatsOnly)) {
                         return false;
                     }
-                    undoMove(p);
                 }
                 return true;
             }
         }
     }
 
+    /**
+     * The moves search needs to try for the player whose turn it is.
+     * When the player of interest needs exactly as many segments as they
+     * have moves left, every one of their moves has to shorten their path,
+     * so only spaces on their shortest paths matter to either player: any
+     * other move by the other player is no better than passing. A search of
+     * threats only keeps to those spaces at any budget.
+     *
+     * @param userOfInt player to determine winnable status for
+     * @param currTurn player whose turn it is currently
+     * @param movesLeft num of total moves left
+     * @param threatsOnly whether only threats are searched
+     * @return the moves to try, made by currTurn
+     */
+    private List<PlayerMove> searchMoves(int userOfInt, int currTurn,
+                                         int movesLeft, boolean threatsOnly) {
+        DistanceField field = getDistanceField(userOfInt);
+        boolean tight = threatsOnly || field.getShortest() ==
+                (currTurn == userOfInt ? movesLeft + 1 : movesLeft) / 2;
+        List<PlayerMove> moves = new ArrayList<>();
+        for (PlayerMove legal : allLegalMoves()) {
+            Coordinate c = legal.getCoordinate();
+            if (!tight || field.isOnShortestPath(c.getRow(), c.getCol())) {
+                moves.add(new PlayerMove(c, currTurn));
+            }
+        }
+        return moves;
+    }
+
     /**
      * A method to undo a move in order to not have to keep making deep
      * copies of the board.
@@ -556,9 +843,11 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
      * @param m a playerMove that stores the Coordinate in which to reset
      */
     private void undoMove(PlayerMove m) {
-        Node n = graph.get(m.getCoordinate());
-        n.setPlayerOccupied(0);
-        setNeighbors(m.getCoordinate(), n);
+        board.set(m.getCoordinate().getRow(), m.getCoordinate().getCol(), 0);
+        if (bits != null) {
+            bits.set(m.getCoordinate().getRow(), m.getCoordinate().getCol(), 0);
+        }
+        boardVersion++;
     }
 
     /**
@@ -575,11 +864,10 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
         for (int i = 0; i < max; i++) {
             sb.append("\n");
             for (int j = 0; j < max; j++) {
-                Node n = graph.get(new Coordinate(i, j));
-                if (n.getPlayerOccupied() == 1) {
+                if (board.getOccupant(i, j) == 1) {
                     sb.append("X ");
                 }
-                else if (n.getPlayerOccupied() == 2) {
+                else if (board.getOccupant(i, j) == 2) {
                     sb.append("O ");
                 }
                 else {
@@ -597,12 +885,26 @@ public class teamDab implements PlayerModulePart1, PlayerModulePart2,
             if (dim != t.dim || playerId != t.playerId) {
                 return false;
             }
-            for (Coordinate c : graph.keySet()) {
-                if (!graph.get(c).equals(t.graph.get(c))) {
-                    return false;
-                }
+            if (!board.equals(t.board)) {
+                return false;
             }
         }
         return true;
     }
+
+    /**
+     * Thrown by search when threatSearch's positions run out. It only
+     * unwinds the search inside move(), so it carries no stack trace.
+     */
+    private static class SearchAborted extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor for SearchAborted class.
+         */
+        SearchAborted() {
+            super(null, null, false, false);
+        }
+    }
 }